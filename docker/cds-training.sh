@@ -0,0 +1,38 @@
+#!/bin/sh
+# Training run for the startup packaging mode. Starts a throwaway Redis inside the image
+# build, drives the create and get paths so the classes they load are recorded, and dumps
+# a dynamic CDS archive when the JVM exits.
+set -e
+
+APP_URL=http://localhost:8080
+TRAINING_REQUESTS=${TRAINING_REQUESTS:-500}
+
+redis-server --port 6379 --save '' --appendonly no --daemonize yes
+
+java -XX:ArchiveClassesAtExit=application.jsa \
+  -Dspring.aot.enabled=true \
+  -Dspring.data.redis.host=127.0.0.1 \
+  -Dspring.data.redis.port=6379 \
+  -Dapp.warmup.enabled=true \
+  -Dapp.warmup.duration=1000 \
+  -Dapp.fallback.enabled=false \
+  -jar app.jar &
+APP_PID=$!
+
+for i in $(seq 1 120); do
+  if curl -sf "$APP_URL/actuator/health/readiness" > /dev/null; then
+    break
+  fi
+  sleep 1
+done
+
+for i in $(seq 1 "$TRAINING_REQUESTS"); do
+  SESSION_ID=$(curl -sf -X POST "$APP_URL/v1/api/session" | sed 's/.*"sessionId":"\([^"]*\)".*/\1/')
+  curl -sf "$APP_URL/v1/api/session/$SESSION_ID" > /dev/null
+done
+
+kill -TERM "$APP_PID"
+wait "$APP_PID" || true
+redis-cli shutdown nosave || true
+
+test -f application.jsa
@@ -0,0 +1,117 @@
+package com.codelry.demo.sessionapi.config;
+
+import com.codelry.demo.sessionapi.service.SessionInvalidationService;
+import com.codelry.demo.sessionapi.service.SessionService;
+import com.codelry.demo.sessionapi.service.TenantService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Warms the application before it reports ready. Application runners complete before
+ * Spring Boot switches readiness to ACCEPTING_TRAFFIC, so blocking here keeps new replicas
+ * out of the load balancer until the Lettuce connection is open, the Lua scripts are in the
+ * Redis script cache so their first EVALSHA does not miss, and the create, get,
+ * conditional get and delete paths have been exercised over HTTP for the configured duration.
+ * The default is long enough for the request path to leave the interpreter and for its
+ * hottest methods to reach C2; a short duration only gets them to C1.
+ * <p>
+ * Requests carry the warmup token, so they run as the warmup tenant and stay out of the
+ * activity counts, tenant quotas and operation metrics.
+ */
+@Component
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+    private final Environment environment;
+    private final TenantService tenantService;
+
+    @Value("${app.warmup.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.warmup.duration:10000}")
+    private long durationMillis;
+
+    @Value("${app.warmup.concurrency:8}")
+    private int concurrency;
+
+    @Value("${app.warmup.timeout:30000}")
+    private long timeoutMillis;
+
+    public StartupWarmup(ReactiveRedisTemplate<String, String> reactiveRedisTemplate, Environment environment,
+                         TenantService tenantService) {
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.environment = environment;
+        this.tenantService = tenantService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            reactiveRedisTemplate.execute(connection -> connection.ping())
+                .then()
+                .block(Duration.ofMillis(timeoutMillis));
+            List<RedisScript<?>> scripts = new ArrayList<>(SessionService.scripts());
+            scripts.addAll(SessionInvalidationService.scripts());
+            Flux.fromIterable(scripts)
+                .flatMap(script -> reactiveRedisTemplate.execute(connection -> connection.scriptingCommands()
+                    .scriptLoad(ByteBuffer.wrap(script.getScriptAsString().getBytes(StandardCharsets.UTF_8)))))
+                .then()
+                .block(Duration.ofMillis(timeoutMillis));
+            logger.info("Warmup opened the Redis connection and loaded {} scripts", scripts.size());
+
+            String port = environment.getProperty("local.server.port", environment.getProperty("server.port", "8080"));
+            WebClient client = WebClient.builder()
+                .baseUrl("http://localhost:" + port + "/v1/api/session")
+                .defaultHeader(TenantWebFilter.WARMUP_TOKEN_HEADER, tenantService.warmupToken())
+                .build();
+            long deadline = System.nanoTime() + Duration.ofMillis(durationMillis).toNanos();
+            AtomicLong iterations = new AtomicLong();
+            Flux.range(0, concurrency)
+                .flatMap(worker -> Mono.defer(() -> exerciseSessionApi(client))
+                    .doOnSuccess(done -> iterations.incrementAndGet())
+                    .repeat(() -> System.nanoTime() < deadline), concurrency)
+                .then()
+                .block(Duration.ofMillis(timeoutMillis));
+            logger.info("Warmup completed {} iterations in {} ms", iterations.get(), (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.warn("Warmup did not complete, continuing startup: {}", e.getMessage());
+        }
+    }
+
+    private Mono<Void> exerciseSessionApi(WebClient client) {
+        return client.post().retrieve().bodyToMono(Map.class)
+            .map(body -> (String) body.get("sessionId"))
+            .flatMap(sessionId -> client.get().uri("/{sessionId}", sessionId).retrieve().toEntity(String.class)
+                .flatMap(response -> client.get().uri("/{sessionId}", sessionId)
+                    .header(HttpHeaders.IF_NONE_MATCH, response.getHeaders().getETag())
+                    .retrieve()
+                    .toBodilessEntity())
+                .then(client.delete().uri("/{sessionId}", sessionId).retrieve().toBodilessEntity()))
+            .then();
+    }
+}
@@ -0,0 +1,107 @@
+package com.codelry.demo.sessionapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "app.tenant")
+public class TenantProperties {
+    private String header = "X-Tenant-ID";
+    private String defaultTenant = "default";
+    private boolean allowUnknown = false;
+    private int maxDynamicTenants = 100;
+    private Settings defaults = new Settings(Duration.ofHours(24), 0L, 0L);
+    private Map<String, Settings> tenants = new HashMap<>();
+
+    public String getHeader() {
+        return header;
+    }
+
+    public void setHeader(String header) {
+        this.header = header;
+    }
+
+    public String getDefaultTenant() {
+        return defaultTenant;
+    }
+
+    public void setDefaultTenant(String defaultTenant) {
+        this.defaultTenant = defaultTenant;
+    }
+
+    public boolean isAllowUnknown() {
+        return allowUnknown;
+    }
+
+    public void setAllowUnknown(boolean allowUnknown) {
+        this.allowUnknown = allowUnknown;
+    }
+
+    public int getMaxDynamicTenants() {
+        return maxDynamicTenants;
+    }
+
+    public void setMaxDynamicTenants(int maxDynamicTenants) {
+        this.maxDynamicTenants = maxDynamicTenants;
+    }
+
+    public Settings getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Settings defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Settings> getTenants() {
+        return tenants;
+    }
+
+    public void setTenants(Map<String, Settings> tenants) {
+        this.tenants = tenants;
+    }
+
+    /**
+     * Per-tenant overrides. Unset values fall back to the defaults.
+     */
+    public static class Settings {
+        private Duration ttl;
+        private Long rateLimit;
+        private Long burst;
+
+        public Settings() {
+        }
+
+        public Settings(Duration ttl, Long rateLimit, Long burst) {
+            this.ttl = ttl;
+            this.rateLimit = rateLimit;
+            this.burst = burst;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public Long getRateLimit() {
+            return rateLimit;
+        }
+
+        public void setRateLimit(Long rateLimit) {
+            this.rateLimit = rateLimit;
+        }
+
+        public Long getBurst() {
+            return burst;
+        }
+
+        public void setBurst(Long burst) {
+            this.burst = burst;
+        }
+    }
+}
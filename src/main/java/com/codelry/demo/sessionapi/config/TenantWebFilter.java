@@ -0,0 +1,108 @@
+package com.codelry.demo.sessionapi.config;
+
+import com.codelry.demo.sessionapi.dto.ErrorResponse;
+import com.codelry.demo.sessionapi.model.Tenant;
+import com.codelry.demo.sessionapi.service.TenantService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.reactive.result.view.ViewResolver;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the tenant for API requests and enforces its quota before the request reaches a
+ * controller. The tenant comes from a {@code /v1/api/tenants/{tenant}/...} path, which is
+ * rewritten to the plain API path, or from the tenant header. Without either, the default
+ * tenant is used. Requests carrying this process's warmup token are assigned the warmup tenant.
+ * Rejections carry the same {@link ErrorResponse} body as errors raised by controllers.
+ */
+@Component
+public class TenantWebFilter implements WebFilter {
+
+    public static final String TENANT_ATTRIBUTE = Tenant.class.getName();
+    public static final String WARMUP_TOKEN_HEADER = "X-Warmup-Token";
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantWebFilter.class);
+    private static final String API_PATH = "/v1/api";
+    private static final Pattern TENANT_PATH = Pattern.compile("^/v1/api/tenants/([^/]+)(/.*)$");
+
+    private final TenantService tenantService;
+    private final TenantProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ServerResponse.Context responseContext;
+
+    public TenantWebFilter(TenantService tenantService, TenantProperties properties, MeterRegistry meterRegistry,
+                           ServerCodecConfigurer codecConfigurer) {
+        this.tenantService = tenantService;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.responseContext = new ServerResponse.Context() {
+            @Override
+            public List<HttpMessageWriter<?>> messageWriters() {
+                return codecConfigurer.getWriters();
+            }
+
+            @Override
+            public List<ViewResolver> viewResolvers() {
+                return List.of();
+            }
+        };
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        if (!path.startsWith(API_PATH + "/")) {
+            return chain.filter(exchange);
+        }
+
+        ServerWebExchange target = exchange;
+        String tenantId = exchange.getRequest().getHeaders().getFirst(properties.getHeader());
+        Matcher matcher = TENANT_PATH.matcher(path);
+        if (matcher.matches()) {
+            tenantId = matcher.group(1);
+            String apiPath = API_PATH + matcher.group(2);
+            target = exchange.mutate().request(request -> request.path(apiPath)).build();
+        }
+
+        Tenant tenant = tenantService.warmupTenant(exchange.getRequest().getHeaders().getFirst(WARMUP_TOKEN_HEADER));
+        if (tenant == null) {
+            try {
+                tenant = tenantService.resolve(tenantId);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Rejected request for {}: {}", path, e.getMessage());
+                return reject(exchange, HttpStatus.BAD_REQUEST, e.getMessage(), path);
+            }
+        }
+
+        if (!tenant.tryAcquire()) {
+            logger.debug("Tenant {} exceeded its rate limit", tenant.getId());
+            meterRegistry.counter("session.tenant.rejected", "tenant", tenant.getMetricTag()).increment();
+            return reject(exchange, HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded for tenant: " + tenant.getId(), path);
+        }
+
+        target.getAttributes().put(TENANT_ATTRIBUTE, tenant);
+        return chain.filter(target);
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, HttpStatus status, String message, String path) {
+        ErrorResponse errorResponse = new ErrorResponse(status.getReasonPhrase(), message, path);
+        return ServerResponse.status(status)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(errorResponse)
+            .flatMap(response -> response.writeTo(exchange, responseContext));
+    }
+}
@@ -1,13 +1,22 @@
 package com.codelry.demo.sessionapi.controller;
 
+import com.codelry.demo.sessionapi.config.TenantWebFilter;
 import com.codelry.demo.sessionapi.model.Session;
+import com.codelry.demo.sessionapi.model.Tenant;
+import com.codelry.demo.sessionapi.service.SessionActivityService;
+import com.codelry.demo.sessionapi.service.SessionExportService;
 import com.codelry.demo.sessionapi.service.SessionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.Map;
@@ -20,15 +29,23 @@ public class SessionController {
     private static final Logger logger = LoggerFactory.getLogger(SessionController.class);
     
     private final SessionService sessionService;
+    private final SessionExportService exportService;
+    private final SessionActivityService activityService;
+
+    @Value("${app.session.etag.touch-on-not-modified:true}")
+    private boolean touchOnNotModified;
 
     @Autowired
-    public SessionController(SessionService sessionService) {
+    public SessionController(SessionService sessionService, SessionExportService exportService,
+                             SessionActivityService activityService) {
         this.sessionService = sessionService;
+        this.exportService = exportService;
+        this.activityService = activityService;
     }
 
     @PostMapping
-    public Mono<ResponseEntity<Map<String, String>>> createSession() {
-        return sessionService.createSession()
+    public Mono<ResponseEntity<Map<String, String>>> createSession(@RequestAttribute(TenantWebFilter.TENANT_ATTRIBUTE) Tenant tenant) {
+        return sessionService.createSession(tenant)
             .map(session -> {
                 Map<String, String> response = Map.of("sessionId", session.getSessionId().toString());
                 logger.info("Successfully created session: {}", session.getSessionId());
@@ -36,19 +53,97 @@ public class SessionController {
             });
     }
 
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Session> exportSessions(@RequestAttribute(TenantWebFilter.TENANT_ATTRIBUTE) Tenant tenant,
+                                       @RequestParam(defaultValue = "1") int parallelism,
+                                       @RequestParam(required = false) Integer opsPerSecond) {
+        return exportService.exportSessions(tenant, parallelism, opsPerSecond);
+    }
+
+    @GetMapping("/activity")
+    public Mono<Map<String, Long>> getActivity(@RequestParam(required = false) Integer minutes) {
+        return activityService.getActivity(minutes);
+    }
+
     @GetMapping("/{sessionId}")
-    public Mono<ResponseEntity<Session>> getSession(@PathVariable String sessionId) {
+    public Mono<ResponseEntity<Session>> getSession(@RequestAttribute(TenantWebFilter.TENANT_ATTRIBUTE) Tenant tenant,
+                                                    @PathVariable String sessionId,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            UUID uuid = UUID.fromString(sessionId);
+            if (!StringUtils.hasText(ifNoneMatch)) {
+                return fetchSession(tenant, uuid);
+            }
+            return sessionService.getSessionVersion(tenant, uuid)
+                .filter(version -> eTagMatches(ifNoneMatch, toETag(version)))
+                .flatMap(version -> notModified(tenant, uuid, version))
+                .switchIfEmpty(Mono.defer(() -> fetchSession(tenant, uuid)));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid UUID format provided: {}", sessionId);
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+    }
+
+    @DeleteMapping("/{sessionId}")
+    public Mono<ResponseEntity<Void>> deleteSession(@RequestAttribute(TenantWebFilter.TENANT_ATTRIBUTE) Tenant tenant,
+                                                    @PathVariable String sessionId) {
         try {
             UUID uuid = UUID.fromString(sessionId);
-            return sessionService.getSession(uuid)
-                .map(session -> {
-                    logger.info("Successfully retrieved session: {}", sessionId);
-                    return ResponseEntity.ok(session);
-                })
-                .defaultIfEmpty(ResponseEntity.notFound().build());
+            return sessionService.deleteSession(tenant, uuid)
+                .map(deleted -> {
+                    if (!deleted) {
+                        return ResponseEntity.notFound().<Void>build();
+                    }
+                    logger.info("Successfully deleted session: {}", sessionId);
+                    return ResponseEntity.noContent().<Void>build();
+                });
         } catch (IllegalArgumentException e) {
             logger.warn("Invalid UUID format provided: {}", sessionId);
             return Mono.just(ResponseEntity.badRequest().build());
         }
     }
+
+    private Mono<ResponseEntity<Session>> fetchSession(Tenant tenant, UUID sessionId) {
+        return sessionService.getSession(tenant, sessionId)
+            .map(session -> {
+                logger.info("Successfully retrieved session: {}", sessionId);
+                return ResponseEntity.ok().eTag(toETag(session.getVersion())).body(session);
+            })
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    private Mono<ResponseEntity<Session>> notModified(Tenant tenant, UUID sessionId, long version) {
+        ResponseEntity<Session> response = ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(toETag(version)).build();
+        logger.info("Session not modified: {}", sessionId);
+        if (touchOnNotModified) {
+            return sessionService.touchSession(tenant, sessionId)
+                .map(touched -> touched ? response : ResponseEntity.notFound().<Session>build());
+        }
+        return Mono.just(response);
+    }
+
+    /**
+     * The tag is weak because lastAccessedAt changes on every read while the version only
+     * tracks the session content.
+     */
+    private static String toETag(long version) {
+        return "W/\"" + version + "\"";
+    }
+
+    private static boolean eTagMatches(String ifNoneMatch, String eTag) {
+        String opaqueTag = eTag.substring(2);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,77 @@
+package com.codelry.demo.sessionapi.controller;
+
+import com.codelry.demo.sessionapi.config.TenantWebFilter;
+import com.codelry.demo.sessionapi.dto.InvalidationRequest;
+import com.codelry.demo.sessionapi.model.InvalidationJob;
+import com.codelry.demo.sessionapi.model.Tenant;
+import com.codelry.demo.sessionapi.service.SessionInvalidationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/v1/api/session/invalidations")
+public class SessionInvalidationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionInvalidationController.class);
+
+    private final SessionInvalidationService invalidationService;
+
+    @Autowired
+    public SessionInvalidationController(SessionInvalidationService invalidationService) {
+        this.invalidationService = invalidationService;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<InvalidationJob>> startInvalidation(@RequestAttribute(TenantWebFilter.TENANT_ATTRIBUTE) Tenant tenant,
+                                                                   @RequestBody InvalidationRequest request) {
+        try {
+            List<UUID> sessionIds = request.getSessionIds() == null ? List.of()
+                : request.getSessionIds().stream().map(UUID::fromString).toList();
+            return invalidationService.startJob(tenant, sessionIds, request.getCreatedBefore(), request.getRate())
+                .map(job -> ResponseEntity.status(HttpStatus.ACCEPTED).body(job));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid invalidation request: {}", e.getMessage());
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+    }
+
+    @GetMapping
+    public Flux<InvalidationJob> getInvalidations(@RequestAttribute(TenantWebFilter.TENANT_ATTRIBUTE) Tenant tenant) {
+        return invalidationService.getJobs(tenant);
+    }
+
+    @GetMapping("/{jobId}")
+    public Mono<ResponseEntity<InvalidationJob>> getInvalidation(@RequestAttribute(TenantWebFilter.TENANT_ATTRIBUTE) Tenant tenant,
+                                                                 @PathVariable String jobId) {
+        try {
+            return invalidationService.getJob(tenant, UUID.fromString(jobId))
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid UUID format provided: {}", jobId);
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+    }
+
+    @DeleteMapping("/{jobId}")
+    public Mono<ResponseEntity<InvalidationJob>> cancelInvalidation(@RequestAttribute(TenantWebFilter.TENANT_ATTRIBUTE) Tenant tenant,
+                                                                    @PathVariable String jobId) {
+        try {
+            return invalidationService.cancelJob(tenant, UUID.fromString(jobId))
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid UUID format provided: {}", jobId);
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.codelry.demo.sessionapi.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class InvalidationRequest {
+    private List<String> sessionIds;
+    private LocalDateTime createdBefore;
+    private Integer rate;
+
+    public InvalidationRequest() {
+    }
+
+    public List<String> getSessionIds() {
+        return sessionIds;
+    }
+
+    public void setSessionIds(List<String> sessionIds) {
+        this.sessionIds = sessionIds;
+    }
+
+    public LocalDateTime getCreatedBefore() {
+        return createdBefore;
+    }
+
+    public void setCreatedBefore(LocalDateTime createdBefore) {
+        this.createdBefore = createdBefore;
+    }
+
+    public Integer getRate() {
+        return rate;
+    }
+
+    public void setRate(Integer rate) {
+        this.rate = rate;
+    }
+}
@@ -0,0 +1,130 @@
+package com.codelry.demo.sessionapi.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class InvalidationJob {
+
+    public enum State {
+        RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+
+    private final UUID jobId;
+    private final String tenant;
+    private final LocalDateTime createdBefore;
+    private final int sessionIdCount;
+    private final int rate;
+    private final LocalDateTime startedAt;
+    private final AtomicLong scanned;
+    private final AtomicLong deleted;
+    private volatile LocalDateTime finishedAt;
+    private volatile State state;
+    private volatile String error;
+
+    public InvalidationJob(String tenant, LocalDateTime createdBefore, int sessionIdCount, int rate) {
+        this(UUID.randomUUID(), tenant, createdBefore, sessionIdCount, rate, LocalDateTime.now(),
+            0, 0, State.RUNNING, null, null);
+    }
+
+    /**
+     * Restores a job from its stored status.
+     */
+    public InvalidationJob(UUID jobId, String tenant, LocalDateTime createdBefore, int sessionIdCount, int rate,
+                           LocalDateTime startedAt, long scanned, long deleted, State state,
+                           LocalDateTime finishedAt, String error) {
+        this.jobId = jobId;
+        this.tenant = tenant;
+        this.createdBefore = createdBefore;
+        this.sessionIdCount = sessionIdCount;
+        this.rate = rate;
+        this.startedAt = startedAt;
+        this.scanned = new AtomicLong(scanned);
+        this.deleted = new AtomicLong(deleted);
+        this.state = state;
+        this.finishedAt = finishedAt;
+        this.error = error;
+    }
+
+    public UUID getJobId() {
+        return jobId;
+    }
+
+    public String getTenant() {
+        return tenant;
+    }
+
+    public LocalDateTime getCreatedBefore() {
+        return createdBefore;
+    }
+
+    public int getSessionIdCount() {
+        return sessionIdCount;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public long getScanned() {
+        return scanned.get();
+    }
+
+    public long getDeleted() {
+        return deleted.get();
+    }
+
+    /**
+     * Sessions deleted per second since the job started.
+     */
+    public double getThroughput() {
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        long elapsedMillis = Math.max(1, Duration.between(startedAt, end).toMillis());
+        return deleted.get() * 1000.0 / elapsedMillis;
+    }
+
+    public void recordScanned() {
+        scanned.incrementAndGet();
+    }
+
+    public void recordDeleted(long count) {
+        deleted.addAndGet(count);
+    }
+
+    public synchronized void complete() {
+        finish(State.COMPLETED, null);
+    }
+
+    public synchronized void cancel() {
+        finish(State.CANCELLED, null);
+    }
+
+    public synchronized void fail(String message) {
+        finish(State.FAILED, message);
+    }
+
+    private void finish(State finalState, String message) {
+        if (state == State.RUNNING) {
+            state = finalState;
+            error = message;
+            finishedAt = LocalDateTime.now();
+        }
+    }
+}
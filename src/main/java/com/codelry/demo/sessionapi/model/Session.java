@@ -1,5 +1,7 @@
 package com.codelry.demo.sessionapi.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -7,6 +9,8 @@ public class Session {
     private UUID sessionId = UUID.randomUUID();
     private LocalDateTime createdAt;
     private LocalDateTime lastAccessedAt;
+    @JsonIgnore
+    private long version = 1;
 
     public Session() {
         this.createdAt = LocalDateTime.now();
@@ -43,6 +47,14 @@ public class Session {
         this.lastAccessedAt = lastAccessedAt;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public void updateLastAccessed() {
         this.lastAccessedAt = LocalDateTime.now();
     }
@@ -0,0 +1,87 @@
+package com.codelry.demo.sessionapi.model;
+
+import java.time.Duration;
+
+/**
+ * A tenant owns a key namespace, a session TTL and a request quota. The quota is a local
+ * token bucket, so enforcing it never costs a Redis round trip.
+ */
+public class Tenant {
+    private final String id;
+    private final String keyPrefix;
+    private final String keyPattern;
+    private final Duration ttl;
+    private final long rateLimit;
+    private final String metricTag;
+    private final boolean warmup;
+    private final double capacity;
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * @param rateLimit requests per second, or zero for unlimited
+     * @param burst     bucket capacity, or zero to use the rate limit
+     * @param metricTag value of the tenant tag on metrics, shared by tenants that are not
+     *                  configured so their number cannot grow the metric cardinality
+     * @param warmup    whether the tenant only carries startup warmup traffic, which is kept
+     *                  out of activity counts and operation metrics
+     */
+    public Tenant(String id, String keyPrefix, String keyPattern, Duration ttl, long rateLimit, long burst,
+                  String metricTag, boolean warmup) {
+        this.id = id;
+        this.keyPrefix = keyPrefix;
+        this.keyPattern = keyPattern;
+        this.ttl = ttl;
+        this.rateLimit = rateLimit;
+        this.metricTag = metricTag;
+        this.warmup = warmup;
+        this.capacity = burst > 0 ? burst : rateLimit;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    /**
+     * SCAN MATCH pattern covering exactly this tenant's session keys.
+     */
+    public String getKeyPattern() {
+        return keyPattern;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public long getRateLimit() {
+        return rateLimit;
+    }
+
+    public String getMetricTag() {
+        return metricTag;
+    }
+
+    public boolean isWarmup() {
+        return warmup;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (rateLimit <= 0) {
+            return true;
+        }
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * rateLimit / 1_000_000_000.0);
+        lastRefillNanos = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+}
@@ -0,0 +1,64 @@
+package com.codelry.demo.sessionapi.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks consecutive Redis failures. Once the threshold is reached the breaker opens and
+ * callers stop sending commands to Redis until a probe after the open duration succeeds.
+ */
+@Component
+public class RedisCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisCircuitBreaker.class);
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAt = new AtomicLong();
+
+    @Value("${app.circuit-breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${app.circuit-breaker.open-duration:5000}")
+    private long openDurationMillis;
+
+    public RedisCircuitBreaker(MeterRegistry meterRegistry) {
+        Gauge.builder("session.redis.circuit.open", this, breaker -> breaker.isOpen() ? 1 : 0)
+            .description("1 while Redis is considered unavailable")
+            .register(meterRegistry);
+    }
+
+    public boolean isOpen() {
+        return openedAt.get() != 0;
+    }
+
+    public boolean isProbeDue() {
+        long opened = openedAt.get();
+        return opened != 0 && System.currentTimeMillis() - opened >= openDurationMillis;
+    }
+
+    public void recordSuccess() {
+        consecutiveFailures.set(0);
+        if (openedAt.getAndSet(0) != 0) {
+            logger.info("Redis circuit breaker closed");
+        }
+    }
+
+    public void recordFailure() {
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold
+            && openedAt.compareAndSet(0, System.currentTimeMillis())) {
+            logger.warn("Redis circuit breaker opened after {} consecutive failures", consecutiveFailures.get());
+        }
+    }
+
+    public void recordProbeFailure() {
+        openedAt.set(System.currentTimeMillis());
+        logger.debug("Redis probe failed, circuit breaker remains open");
+    }
+}
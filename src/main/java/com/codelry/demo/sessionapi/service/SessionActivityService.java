@@ -0,0 +1,203 @@
+package com.codelry.demo.sessionapi.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Approximate distinct active session counts. Every access adds the session ID to a
+ * HyperLogLog bucket for the current minute, and the refresh task rolls minute buckets up
+ * into hourly buckets with PFMERGE. Windows of up to an hour are counted over minute buckets,
+ * longer windows over hourly buckets, each with a single multi-key PFCOUNT. All buckets share
+ * a hash tag so the multi-key commands also work on a clustered Redis.
+ */
+@Service
+public class SessionActivityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionActivityService.class);
+    private static final String ACTIVITY_KEY_PREFIX = "{session-activity}:";
+    private static final String HOURLY_KEY_PREFIX = "{session-activity}:h:";
+    private static final long MILLIS_PER_MINUTE = 60_000;
+    private static final int MINUTES_PER_HOUR = 60;
+    private static final Duration MINUTE_BUCKET_TTL = Duration.ofHours(2);
+
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong lastRolledUpHour = new AtomicLong(-1);
+    private final Map<Integer, AtomicLong> windowCounts = new ConcurrentHashMap<>();
+    private Disposable refreshTask;
+
+    @Value("${app.activity.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.activity.windows:5,60,1440}")
+    private List<Integer> windows;
+
+    @Value("${app.activity.retention-minutes:1440}")
+    private int retentionMinutes;
+
+    @Value("${app.activity.refresh-interval:30000}")
+    private long refreshIntervalMillis;
+
+    @Autowired
+    public SessionActivityService(ReactiveRedisTemplate<String, String> reactiveRedisTemplate, MeterRegistry meterRegistry) {
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Gauges and the default activity response read cached counts that are refreshed in the
+     * background, so neither a metrics scrape nor an API call waits on PFCOUNT.
+     */
+    @PostConstruct
+    public void startRefresh() {
+        if (!enabled) {
+            return;
+        }
+        for (Integer window : windows) {
+            AtomicLong count = windowCounts.computeIfAbsent(window, w -> new AtomicLong());
+            Gauge.builder("session.activity.active", count, AtomicLong::get)
+                .description("Approximate distinct sessions accessed within the window")
+                .tag("window", windowLabel(window))
+                .register(meterRegistry);
+        }
+        refreshTask = Flux.interval(Duration.ZERO, Duration.ofMillis(refreshIntervalMillis))
+            .onBackpressureDrop()
+            .concatMap(tick -> rollUp()
+                .thenMany(Flux.fromIterable(windows)
+                    .concatMap(window -> countActive(window)
+                        .doOnNext(count -> windowCounts.get(window).set(count))))
+                .onErrorResume(e -> {
+                    logger.debug("Session activity refresh failed: {}", e.getMessage());
+                    return Mono.empty();
+                }))
+            .subscribe();
+    }
+
+    @PreDestroy
+    public void stopRefresh() {
+        if (refreshTask != null) {
+            refreshTask.dispose();
+        }
+    }
+
+    /**
+     * PFADDs the session to the current minute bucket and refreshes the bucket TTL alongside
+     * it, so a lost EXPIRE is repaired by the next access. Minute buckets only live long
+     * enough to be counted directly and rolled up; longer windows read hourly buckets. Callers combine the returned Mono
+     * with their own commands so both are pipelined rather than adding a round trip, and
+     * failures never fail the request.
+     */
+    public Mono<Void> recordActivity(UUID sessionId) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        long minute = System.currentTimeMillis() / MILLIS_PER_MINUTE;
+        String key = ACTIVITY_KEY_PREFIX + minute;
+
+        return reactiveRedisTemplate.opsForHyperLogLog().add(key, sessionId.toString())
+            .and(reactiveRedisTemplate.expire(key, MINUTE_BUCKET_TTL))
+            .onErrorResume(e -> {
+                logger.debug("Failed to record activity for session {}: {}", sessionId, e.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    /**
+     * Windows longer than an hour are rounded up to whole hours: they cover the complete
+     * hours the window spans plus the partial current hour, so the 24h window reads 25
+     * hourly buckets. The current hourly bucket is only as fresh as the last roll-up, so the
+     * current and previous minute buckets are counted with them.
+     */
+    public Mono<Long> countActive(int minutes) {
+        int window = clampWindow(minutes);
+        long currentMinute = System.currentTimeMillis() / MILLIS_PER_MINUTE;
+        String[] keys;
+        if (window <= MINUTES_PER_HOUR) {
+            keys = minuteKeys(currentMinute - window + 1, currentMinute).toArray(String[]::new);
+        } else {
+            long currentHour = currentMinute / MINUTES_PER_HOUR;
+            int hours = (window + MINUTES_PER_HOUR - 1) / MINUTES_PER_HOUR;
+            keys = Stream.concat(
+                    LongStream.rangeClosed(currentHour - hours, currentHour).mapToObj(hour -> HOURLY_KEY_PREFIX + hour),
+                    minuteKeys(currentMinute - 1, currentMinute))
+                .toArray(String[]::new);
+        }
+        return reactiveRedisTemplate.opsForHyperLogLog().size(keys);
+    }
+
+    /**
+     * The configured windows are served from the cached counts. Any other window is counted
+     * on request.
+     */
+    public Mono<Map<String, Long>> getActivity(Integer minutes) {
+        if (minutes != null) {
+            int window = clampWindow(minutes);
+            return countActive(window).map(count -> Map.of(windowLabel(window), count));
+        }
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Integer window : windows) {
+            AtomicLong count = windowCounts.get(window);
+            counts.put(windowLabel(window), count != null ? count.get() : 0L);
+        }
+        return Mono.just(counts);
+    }
+
+    /**
+     * Merges the minute buckets of the current hour into its hourly bucket, and those of the
+     * previous hour once it is complete. PFMERGE is a union, so repeated and concurrent
+     * roll-ups from several replicas are harmless.
+     */
+    private Mono<Void> rollUp() {
+        long currentMinute = System.currentTimeMillis() / MILLIS_PER_MINUTE;
+        long currentHour = currentMinute / MINUTES_PER_HOUR;
+        long previousHour = currentHour - 1;
+        Mono<Void> current = mergeHour(currentHour, currentMinute);
+        if (lastRolledUpHour.get() >= previousHour) {
+            return current;
+        }
+        return mergeHour(previousHour, currentHour * MINUTES_PER_HOUR - 1)
+            .doOnSuccess(merged -> lastRolledUpHour.set(previousHour))
+            .then(current);
+    }
+
+    private Mono<Void> mergeHour(long hour, long lastMinute) {
+        String hourKey = HOURLY_KEY_PREFIX + hour;
+        String[] minuteKeys = minuteKeys(hour * MINUTES_PER_HOUR, lastMinute).toArray(String[]::new);
+        return reactiveRedisTemplate.opsForHyperLogLog().union(hourKey, minuteKeys)
+            .then(reactiveRedisTemplate.expire(hourKey, Duration.ofMinutes(retentionMinutes + MINUTES_PER_HOUR + 2L)))
+            .then();
+    }
+
+    private static Stream<String> minuteKeys(long firstMinute, long lastMinute) {
+        return LongStream.rangeClosed(firstMinute, lastMinute).mapToObj(minute -> ACTIVITY_KEY_PREFIX + minute);
+    }
+
+    private int clampWindow(int minutes) {
+        return Math.max(1, Math.min(minutes, retentionMinutes));
+    }
+
+    private static String windowLabel(int minutes) {
+        return minutes % 60 == 0 ? (minutes / 60) + "h" : minutes + "m";
+    }
+}
@@ -0,0 +1,102 @@
+package com.codelry.demo.sessionapi.service;
+
+import com.codelry.demo.sessionapi.model.Session;
+import com.codelry.demo.sessionapi.model.Tenant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Streams every live session out of Redis. Keys are walked with cursor-based SCAN and the
+ * hashes are fetched in batches of concurrent HGETALLs, which Lettuce pipelines. The whole
+ * chain is demand driven, so only the batches in flight are held in memory.
+ * <p>
+ * Sessions still held in the fallback log are exported first. Keys that are not sessions,
+ * and partial or legacy hashes that cannot be read, are skipped and counted instead of
+ * ending the stream; only Redis becoming unavailable fails the export.
+ */
+@Service
+public class SessionExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionExportService.class);
+
+    private final SessionService sessionService;
+    private final Counter exportedCounter;
+    private final Counter skippedCounter;
+
+    @Value("${app.export.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.export.scan-count:500}")
+    private long scanCount;
+
+    @Value("${app.export.max-parallelism:8}")
+    private int maxParallelism;
+
+    @Value("${app.export.ops-per-second:0}")
+    private int defaultOpsPerSecond;
+
+    @Autowired
+    public SessionExportService(SessionService sessionService, MeterRegistry meterRegistry) {
+        this.sessionService = sessionService;
+        this.exportedCounter = Counter.builder("session.export.sessions")
+            .description("Sessions written to export streams")
+            .register(meterRegistry);
+        this.skippedCounter = Counter.builder("session.export.skipped")
+            .description("Malformed session entries left out of export streams")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @param parallelism  number of HGETALL batches in flight at once, capped at the configured maximum
+     * @param opsPerSecond Redis command budget for the export, or null for the configured default;
+     *                     zero means unlimited
+     */
+    public Flux<Session> exportSessions(Tenant tenant, int parallelism, Integer opsPerSecond) {
+        int concurrency = Math.max(1, Math.min(parallelism, maxParallelism));
+        int budget = Math.max(0, opsPerSecond != null ? opsPerSecond : defaultOpsPerSecond);
+        logger.info("Starting session export for tenant {} with parallelism {} and ops budget {}",
+            tenant.getId(), concurrency, budget == 0 ? "unlimited" : budget);
+
+        Flux<List<UUID>> batches = sessionService.localSessionIds(tenant)
+            .concatWith(sessionService.scanSessionIds(tenant, scanCount)
+                .filter(sessionId -> !sessionService.isHeldLocally(tenant, sessionId)))
+            .buffer(batchSize);
+        if (budget > 0) {
+            batches = batches.delayElements(Duration.ofNanos(1_000_000_000L * batchSize / budget));
+        }
+
+        Flux<Session> sessions = concurrency == 1
+            ? batches.concatMap(batch -> fetchBatch(tenant, batch))
+            : batches.flatMap(batch -> fetchBatch(tenant, batch), concurrency, 1);
+
+        return sessions
+            .doOnNext(session -> exportedCounter.increment())
+            .doOnComplete(() -> logger.info("Session export completed"))
+            .doOnCancel(() -> logger.info("Session export cancelled by client"))
+            .doOnError(e -> logger.error("Session export failed", e));
+    }
+
+    private Flux<Session> fetchBatch(Tenant tenant, List<UUID> sessionIds) {
+        return Flux.fromIterable(sessionIds).flatMapSequential(sessionId -> readSession(tenant, sessionId), sessionIds.size());
+    }
+
+    private Mono<Session> readSession(Tenant tenant, UUID sessionId) {
+        return sessionService.readSession(tenant, sessionId)
+            .onErrorResume(e -> !SessionService.isRedisUnavailable(e), e -> {
+                logger.debug("Skipping malformed session {} in export: {}", sessionId, e.getMessage());
+                skippedCounter.increment();
+                return Mono.empty();
+            });
+    }
+}
@@ -0,0 +1,333 @@
+package com.codelry.demo.sessionapi.service;
+
+import com.codelry.demo.sessionapi.model.Session;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bounded append-only log of sessions created or touched while Redis is unavailable.
+ * The log lives in a memory-mapped file so the backlog survives a restart, and an
+ * in-memory index serves reads of those sessions until they are replayed to Redis.
+ * <p>
+ * File layout: a header holding the write and replay offsets and a format marker, followed
+ * by fixed size records that each carry the tenant and full session state, so replaying any
+ * record is idempotent. Files with a different format marker are discarded on open.
+ * <p>
+ * Touches are coalesced: a touch rewrites the session's latest record in place while that
+ * record has not been handed to replay yet, so polling a session does not grow the log.
+ * Appended touches may not use the last {@code create-reserve-bytes} of the log, which stay
+ * available for creates and tombstones; a touch that does not fit is served but not logged.
+ */
+@Component
+public class SessionFallbackLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionFallbackLog.class);
+
+    static final int HEADER_SIZE = 12;
+    static final int RECORD_SIZE = 81;
+
+    private static final int FORMAT_MARKER = 0x53464C32;
+    private static final int TENANT_ID_SIZE = 32;
+
+    private static final byte OP_CREATE = 1;
+    private static final byte OP_TOUCH = 2;
+    private static final byte OP_DELETE = 3;
+
+    private final boolean enabled;
+    private final int createReserveBytes;
+    private final Map<UUID, IndexedSession> index = new HashMap<>();
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int writePosition = HEADER_SIZE;
+    private int replayPosition = HEADER_SIZE;
+    private int readPosition = HEADER_SIZE;
+
+    public SessionFallbackLog(@Value("${app.fallback.enabled:true}") boolean enabled,
+                              @Value("${app.fallback.path:${java.io.tmpdir}/session-fallback.log}") String path,
+                              @Value("${app.fallback.capacity-bytes:16777216}") int capacityBytes,
+                              @Value("${app.fallback.create-reserve-bytes:1048576}") int createReserveBytes,
+                              MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.createReserveBytes = createReserveBytes;
+        if (enabled) {
+            open(Path.of(path), capacityBytes);
+        }
+        Gauge.builder("session.fallback.backlog", this, SessionFallbackLog::backlogSize)
+            .description("Session records waiting to be replayed to Redis")
+            .register(meterRegistry);
+    }
+
+    private void open(Path path, int capacityBytes) {
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacityBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to map session fallback log " + path, e);
+        }
+
+        int storedWrite = buffer.getInt(0);
+        int storedReplay = buffer.getInt(4);
+        if (buffer.getInt(8) == FORMAT_MARKER
+            && storedWrite >= HEADER_SIZE && storedWrite <= buffer.capacity()
+            && storedReplay >= HEADER_SIZE && storedReplay <= storedWrite
+            && (storedWrite - HEADER_SIZE) % RECORD_SIZE == 0
+            && (storedReplay - HEADER_SIZE) % RECORD_SIZE == 0) {
+            writePosition = storedWrite;
+            replayPosition = storedReplay;
+            readPosition = storedReplay;
+            for (int position = replayPosition; position < writePosition; position += RECORD_SIZE) {
+                Session session = readRecord(position);
+                if (buffer.get(position) == OP_DELETE) {
+                    index.remove(session.getSessionId());
+                } else {
+                    index.put(session.getSessionId(), new IndexedSession(readTenantId(position), session, position));
+                }
+            }
+        }
+        writeHeader();
+        logger.info("Session fallback log {} mapped with {} bytes, {} records pending replay",
+            path, capacityBytes, backlogSize());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized boolean contains(String tenantId, UUID sessionId) {
+        return lookup(tenantId, sessionId) != null;
+    }
+
+    public synchronized Session get(String tenantId, UUID sessionId) {
+        IndexedSession indexed = lookup(tenantId, sessionId);
+        return indexed != null ? copyOf(indexed.session) : null;
+    }
+
+    public synchronized List<UUID> sessionIds(String tenantId) {
+        List<UUID> sessionIds = new ArrayList<>();
+        index.forEach((sessionId, indexed) -> {
+            if (indexed.tenantId.equals(tenantId)) {
+                sessionIds.add(sessionId);
+            }
+        });
+        return sessionIds;
+    }
+
+    public synchronized void appendCreate(String tenantId, Session session) {
+        int position = append(OP_CREATE, tenantId, session);
+        index.put(session.getSessionId(), new IndexedSession(tenantId, copyOf(session), position));
+    }
+
+    /**
+     * Records a new last accessed time for a locally held session and returns its updated
+     * state, or null if the session is not held locally. The session's pending record is
+     * rewritten in place when replay has not read it yet, otherwise a touch is appended.
+     */
+    public synchronized Session touch(String tenantId, UUID sessionId, LocalDateTime lastAccessedAt) {
+        IndexedSession indexed = lookup(tenantId, sessionId);
+        if (indexed == null) {
+            return null;
+        }
+        Session updated = copyOf(indexed.session);
+        updated.setLastAccessedAt(lastAccessedAt);
+        if (indexed.position >= readPosition) {
+            writeRecord(indexed.position, buffer.get(indexed.position), tenantId, updated);
+        } else if (writePosition + RECORD_SIZE <= buffer.capacity() - createReserveBytes) {
+            indexed.position = append(OP_TOUCH, tenantId, updated);
+        } else {
+            logger.debug("Session fallback log reserve reached, touch of session {} not logged", sessionId);
+            return updated;
+        }
+        indexed.session = updated;
+        return copyOf(updated);
+    }
+
+    /**
+     * Appends a tombstone so a locally held session is removed from Redis on replay
+     * instead of being written back. Returns false if the session is not held locally.
+     */
+    public synchronized boolean appendDelete(String tenantId, UUID sessionId) {
+        IndexedSession indexed = lookup(tenantId, sessionId);
+        if (indexed == null) {
+            return false;
+        }
+        append(OP_DELETE, tenantId, indexed.session);
+        index.remove(sessionId);
+        return true;
+    }
+
+    public synchronized int backlogSize() {
+        return (writePosition - replayPosition) / RECORD_SIZE;
+    }
+
+    public synchronized boolean hasBacklog() {
+        return writePosition > replayPosition;
+    }
+
+    /**
+     * Returns up to {@code maxRecords} of the oldest records not yet replayed, in log order.
+     * Records handed out are no longer rewritten in place, so a touch cannot be lost between
+     * reading and acknowledging a batch.
+     */
+    public synchronized List<Record> readBatch(int maxRecords) {
+        List<Record> batch = new ArrayList<>();
+        int position = replayPosition;
+        for (; position < writePosition && batch.size() < maxRecords; position += RECORD_SIZE) {
+            batch.add(new Record(readTenantId(position), readRecord(position), buffer.get(position) == OP_DELETE));
+        }
+        readPosition = Math.max(readPosition, position);
+        return batch;
+    }
+
+    /**
+     * Marks the oldest {@code count} records as replayed. Sessions whose latest record has
+     * been replayed are dropped from the local index, and the log is rewound once drained.
+     */
+    public synchronized void acknowledge(int count) {
+        replayPosition = Math.min(writePosition, replayPosition + count * RECORD_SIZE);
+        index.values().removeIf(indexed -> indexed.position < replayPosition);
+        if (replayPosition == writePosition) {
+            writePosition = HEADER_SIZE;
+            replayPosition = HEADER_SIZE;
+            readPosition = HEADER_SIZE;
+        }
+        writeHeader();
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            buffer.force();
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private IndexedSession lookup(String tenantId, UUID sessionId) {
+        IndexedSession indexed = index.get(sessionId);
+        return indexed != null && indexed.tenantId.equals(tenantId) ? indexed : null;
+    }
+
+    private int append(byte op, String tenantId, Session session) {
+        if (!enabled) {
+            throw new IllegalStateException("Session fallback log is disabled");
+        }
+        if (writePosition + RECORD_SIZE > buffer.capacity()) {
+            throw new RuntimeException("Redis service unavailable and session fallback log is full");
+        }
+        int position = writePosition;
+        writeRecord(position, op, tenantId, session);
+        writePosition += RECORD_SIZE;
+        writeHeader();
+        return position;
+    }
+
+    private void writeRecord(int position, byte op, String tenantId, Session session) {
+        buffer.put(position, op);
+        buffer.putLong(position + 1, session.getSessionId().getMostSignificantBits());
+        buffer.putLong(position + 9, session.getSessionId().getLeastSignificantBits());
+        putDateTime(position + 17, session.getCreatedAt());
+        putDateTime(position + 29, session.getLastAccessedAt());
+        buffer.putLong(position + 41, session.getVersion());
+        byte[] tenantBytes = tenantId.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < TENANT_ID_SIZE; i++) {
+            buffer.put(position + 49 + i, i < tenantBytes.length ? tenantBytes[i] : 0);
+        }
+    }
+
+    private Session readRecord(int position) {
+        Session session = new Session(new UUID(buffer.getLong(position + 1), buffer.getLong(position + 9)));
+        session.setCreatedAt(getDateTime(position + 17));
+        session.setLastAccessedAt(getDateTime(position + 29));
+        session.setVersion(buffer.getLong(position + 41));
+        return session;
+    }
+
+    private String readTenantId(int position) {
+        byte[] tenantBytes = new byte[TENANT_ID_SIZE];
+        int length = 0;
+        while (length < TENANT_ID_SIZE && buffer.get(position + 49 + length) != 0) {
+            tenantBytes[length] = buffer.get(position + 49 + length);
+            length++;
+        }
+        return new String(tenantBytes, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    private void putDateTime(int position, LocalDateTime dateTime) {
+        buffer.putLong(position, dateTime.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(position + 8, dateTime.getNano());
+    }
+
+    private LocalDateTime getDateTime(int position) {
+        return LocalDateTime.ofEpochSecond(buffer.getLong(position), buffer.getInt(position + 8), ZoneOffset.UTC);
+    }
+
+    private void writeHeader() {
+        buffer.putInt(0, writePosition);
+        buffer.putInt(4, replayPosition);
+        buffer.putInt(8, FORMAT_MARKER);
+    }
+
+    private static Session copyOf(Session session) {
+        Session copy = new Session(session.getSessionId());
+        copy.setCreatedAt(session.getCreatedAt());
+        copy.setLastAccessedAt(session.getLastAccessedAt());
+        copy.setVersion(session.getVersion());
+        return copy;
+    }
+
+    public static class Record {
+        private final String tenantId;
+        private final Session session;
+        private final boolean deleted;
+
+        private Record(String tenantId, Session session, boolean deleted) {
+            this.tenantId = tenantId;
+            this.session = session;
+            this.deleted = deleted;
+        }
+
+        public String getTenantId() {
+            return tenantId;
+        }
+
+        public Session getSession() {
+            return session;
+        }
+
+        public boolean isDeleted() {
+            return deleted;
+        }
+    }
+
+    private static class IndexedSession {
+        private final String tenantId;
+        private Session session;
+        private int position;
+
+        private IndexedSession(String tenantId, Session session, int position) {
+            this.tenantId = tenantId;
+            this.session = session;
+            this.position = position;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.codelry.demo.sessionapi.service;
+
+import com.codelry.demo.sessionapi.model.InvalidationJob;
+import com.codelry.demo.sessionapi.model.Tenant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs bulk session invalidation jobs in the background. Candidates are either an explicit
+ * list of session IDs or every session found with cursor-based SCAN plus those still held in
+ * the fallback log, optionally filtered by creation time. Each match goes through
+ * {@link SessionService#deleteSession}, so locally held sessions get a tombstone.
+ * <p>
+ * The job rate is a budget of Redis operations per second covering both the creation time
+ * reads of the filter and the deletions. Candidates are processed in batches, and each step
+ * of a batch waits for its share of the budget before it is issued, so a job where few
+ * sessions match cannot walk the keyspace at full speed. SCAN pages are only pulled as
+ * batches are consumed.
+ * <p>
+ * Job status lives in a Redis hash so any replica can report or cancel a job. The replica
+ * running the job syncs its progress there and stops once the stored state leaves RUNNING.
+ */
+@Service
+public class SessionInvalidationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionInvalidationService.class);
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final String JOB_KEY_PREFIX = "session-invalidation:";
+    private static final String JOB_INDEX_PREFIX = "session-invalidations:";
+
+    private static final String FIELD_JOB_ID = "jobId";
+    private static final String FIELD_TENANT = "tenant";
+    private static final String FIELD_CREATED_BEFORE = "createdBefore";
+    private static final String FIELD_SESSION_ID_COUNT = "sessionIdCount";
+    private static final String FIELD_RATE = "rate";
+    private static final String FIELD_STARTED_AT = "startedAt";
+    private static final String FIELD_SCANNED = "scanned";
+    private static final String FIELD_DELETED = "deleted";
+    private static final String FIELD_STATE = "state";
+    private static final String FIELD_FINISHED_AT = "finishedAt";
+    private static final String FIELD_ERROR = "error";
+
+    /**
+     * Stores the counters of a job that still exists and refreshes the job and index TTLs.
+     * Returns 1 while the job is RUNNING, 0 once it has been cancelled or has expired.
+     */
+    private static final RedisScript<Long> PROGRESS_SCRIPT = RedisScript.of(
+        "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end "
+            + "redis.call('HSET', KEYS[1], 'scanned', ARGV[1], 'deleted', ARGV[2]) "
+            + "redis.call('PEXPIRE', KEYS[1], ARGV[3]) "
+            + "redis.call('PEXPIRE', KEYS[2], ARGV[3]) "
+            + "if redis.call('HGET', KEYS[1], 'state') == 'RUNNING' then return 1 end return 0", Long.class);
+
+    /**
+     * Moves a RUNNING job to a final state. Returns 1 if this call finished the job.
+     */
+    private static final RedisScript<Long> FINISH_SCRIPT = RedisScript.of(
+        "if redis.call('HGET', KEYS[1], 'state') ~= 'RUNNING' then return 0 end "
+            + "redis.call('HSET', KEYS[1], 'state', ARGV[1], 'finishedAt', ARGV[2]) "
+            + "if ARGV[3] ~= '' then redis.call('HSET', KEYS[1], 'error', ARGV[3]) end "
+            + "return 1", Long.class);
+
+    private final SessionService sessionService;
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+    private final Counter deletedCounter;
+    private final Map<UUID, Disposable> runningJobs = new ConcurrentHashMap<>();
+
+    @Value("${app.invalidation.rate:1000}")
+    private int defaultRate;
+
+    @Value("${app.invalidation.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.invalidation.scan-count:500}")
+    private long scanCount;
+
+    @Value("${app.invalidation.retention:3600000}")
+    private long retentionMillis;
+
+    @Value("${app.invalidation.progress-interval:1000}")
+    private long progressIntervalMillis;
+
+    @Autowired
+    public SessionInvalidationService(SessionService sessionService, ReactiveRedisTemplate<String, String> reactiveRedisTemplate,
+                                      MeterRegistry meterRegistry) {
+        this.sessionService = sessionService;
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.deletedCounter = Counter.builder("session.invalidation.deleted")
+            .description("Sessions removed by bulk invalidation jobs")
+            .register(meterRegistry);
+        Gauge.builder("session.invalidation.active", runningJobs, Map::size)
+            .description("Bulk invalidation jobs running on this instance")
+            .register(meterRegistry);
+    }
+
+    public Mono<InvalidationJob> startJob(Tenant tenant, List<UUID> sessionIds, LocalDateTime createdBefore, Integer rate) {
+        if (sessionIds.isEmpty() && createdBefore == null) {
+            throw new IllegalArgumentException("Either sessionIds or createdBefore must be provided");
+        }
+        int opsPerSecond = rate != null ? rate : defaultRate;
+        if (opsPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be greater than zero");
+        }
+
+        InvalidationJob job = new InvalidationJob(tenant.getId(), createdBefore, sessionIds.size(), opsPerSecond);
+        String jobKey = jobKey(tenant, job.getJobId().toString());
+        String indexKey = indexKey(tenant);
+        Duration retention = Duration.ofMillis(retentionMillis);
+        return reactiveRedisTemplate.opsForHash().putAll(jobKey, toHash(job))
+            .then(reactiveRedisTemplate.expire(jobKey, retention))
+            .and(reactiveRedisTemplate.opsForZSet().add(indexKey, job.getJobId().toString(), System.currentTimeMillis())
+                .then(reactiveRedisTemplate.expire(indexKey, retention)))
+            .then(Mono.fromRunnable(() -> runJob(tenant, job, sessionIds, opsPerSecond)))
+            .thenReturn(job);
+    }
+
+    /**
+     * Lua scripts run by this service, so they can be loaded into the script cache up front.
+     */
+    public static List<RedisScript<?>> scripts() {
+        return List.of(PROGRESS_SCRIPT, FINISH_SCRIPT);
+    }
+
+    public Mono<InvalidationJob> getJob(Tenant tenant, UUID jobId) {
+        return readJob(jobKey(tenant, jobId.toString()));
+    }
+
+    /**
+     * Lists the tenant's jobs oldest first, dropping index entries whose status has expired.
+     */
+    public Flux<InvalidationJob> getJobs(Tenant tenant) {
+        String indexKey = indexKey(tenant);
+        return reactiveRedisTemplate.opsForZSet().rangeByScore(indexKey, Range.unbounded())
+            .flatMapSequential(jobId -> readJob(jobKey(tenant, jobId))
+                .switchIfEmpty(reactiveRedisTemplate.opsForZSet().remove(indexKey, jobId).then(Mono.<InvalidationJob>empty())));
+    }
+
+    /**
+     * Marks a running job as cancelled. The replica running it stops at its next progress sync.
+     */
+    public Mono<InvalidationJob> cancelJob(Tenant tenant, UUID jobId) {
+        String jobKey = jobKey(tenant, jobId.toString());
+        return finish(jobKey, InvalidationJob.State.CANCELLED, null)
+            .doOnNext(cancelled -> {
+                if (cancelled) {
+                    logger.info("Cancelled invalidation job {}", jobId);
+                }
+            })
+            .then(readJob(jobKey));
+    }
+
+    private void runJob(Tenant tenant, InvalidationJob job, List<UUID> sessionIds, int opsPerSecond) {
+        UUID jobId = job.getJobId();
+        String jobKey = jobKey(tenant, jobId.toString());
+        LocalDateTime createdBefore = job.getCreatedBefore();
+
+        Flux<UUID> candidates = sessionIds.isEmpty()
+            ? sessionService.localSessionIds(tenant).concatWith(sessionService.scanSessionIds(tenant, scanCount))
+            : Flux.fromIterable(sessionIds);
+        Duration opInterval = Duration.ofNanos(1_000_000_000L / opsPerSecond);
+
+        Mono<InvalidationJob.State> work = candidates
+            .doOnNext(sessionId -> job.recordScanned())
+            .buffer(batchSize)
+            .concatMap(batch -> invalidateBatch(tenant, batch, createdBefore, opInterval))
+            .doOnNext(count -> {
+                job.recordDeleted(count);
+                deletedCounter.increment(count);
+                logger.debug("Invalidation job {} deleted {} sessions so far", jobId, job.getDeleted());
+            })
+            .then(Mono.just(InvalidationJob.State.COMPLETED));
+
+        Mono<InvalidationJob.State> stopped = Flux.interval(Duration.ofMillis(progressIntervalMillis))
+            .concatMap(tick -> syncProgress(tenant, job)
+                .onErrorResume(e -> {
+                    logger.debug("Failed to sync progress of invalidation job {}: {}", jobId, e.getMessage());
+                    return Mono.just(true);
+                }))
+            .filter(running -> !running)
+            .next()
+            .thenReturn(InvalidationJob.State.CANCELLED);
+
+        Disposable.Swap subscription = Disposables.swap();
+        runningJobs.put(jobId, subscription);
+        subscription.update(Mono.firstWithSignal(work, stopped)
+            .doOnNext(state -> {
+                if (state == InvalidationJob.State.COMPLETED) {
+                    job.complete();
+                    logger.info("Invalidation job {} completed, scanned: {}, deleted: {}", jobId, job.getScanned(), job.getDeleted());
+                } else {
+                    job.cancel();
+                    logger.info("Invalidation job {} stopped after cancellation, deleted: {}", jobId, job.getDeleted());
+                }
+            })
+            .onErrorResume(e -> {
+                logger.error("Invalidation job {} failed", jobId, e);
+                job.fail(e.getMessage());
+                return Mono.just(InvalidationJob.State.FAILED);
+            })
+            .flatMap(state -> syncProgress(tenant, job).then(finish(jobKey, state, job.getError())))
+            .onErrorResume(e -> {
+                logger.warn("Failed to store result of invalidation job {}: {}", jobId, e.getMessage());
+                return Mono.empty();
+            })
+            .doFinally(signalType -> runningJobs.remove(jobId))
+            .subscribe());
+
+        logger.info("Started invalidation job {} for tenant {} at {} ops/s", jobId, tenant.getId(), opsPerSecond);
+    }
+
+    /**
+     * Spends one operation per creation time read, then one per deletion, waiting for the
+     * budget of each step before issuing it. Emits the number of sessions deleted.
+     */
+    private Mono<Long> invalidateBatch(Tenant tenant, List<UUID> batch, LocalDateTime createdBefore, Duration opInterval) {
+        int reads = createdBefore != null ? batch.size() : 0;
+        return Mono.delay(opInterval.multipliedBy(reads))
+            .thenMany(Flux.fromIterable(batch)
+                .flatMap(sessionId -> matches(tenant, sessionId, createdBefore), batch.size()))
+            .collectList()
+            .flatMap(matched -> Mono.delay(opInterval.multipliedBy(matched.size()))
+                .thenMany(Flux.fromIterable(matched)
+                    .flatMap(sessionId -> sessionService.deleteSession(tenant, sessionId), Math.max(1, matched.size())))
+                .filter(Boolean::booleanValue)
+                .count());
+    }
+
+    private Mono<UUID> matches(Tenant tenant, UUID sessionId, LocalDateTime createdBefore) {
+        if (createdBefore == null) {
+            return Mono.just(sessionId);
+        }
+        return sessionService.getCreatedAt(tenant, sessionId)
+            .filter(createdAt -> createdAt.isBefore(createdBefore))
+            .map(createdAt -> sessionId);
+    }
+
+    private Mono<Boolean> syncProgress(Tenant tenant, InvalidationJob job) {
+        return reactiveRedisTemplate.execute(PROGRESS_SCRIPT,
+                List.of(jobKey(tenant, job.getJobId().toString()), indexKey(tenant)),
+                List.of(String.valueOf(job.getScanned()), String.valueOf(job.getDeleted()), String.valueOf(retentionMillis)))
+            .next()
+            .map(running -> running == 1L);
+    }
+
+    private Mono<Boolean> finish(String jobKey, InvalidationJob.State state, String error) {
+        return reactiveRedisTemplate.execute(FINISH_SCRIPT, List.of(jobKey),
+                List.of(state.name(), LocalDateTime.now().format(DATE_FORMATTER), error != null ? error : ""))
+            .next()
+            .map(finished -> finished == 1L);
+    }
+
+    private Mono<InvalidationJob> readJob(String jobKey) {
+        return reactiveRedisTemplate.opsForHash().entries(jobKey)
+            .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+            .filter(entries -> !entries.isEmpty())
+            .map(this::convertHashToJob);
+    }
+
+    /**
+     * Job keys carry the tenant as a hash tag so the status hash and the tenant's job index
+     * share a cluster slot for the progress script.
+     */
+    private static String jobKey(Tenant tenant, String jobId) {
+        return JOB_KEY_PREFIX + "{" + tenant.getId() + "}:" + jobId;
+    }
+
+    private static String indexKey(Tenant tenant) {
+        return JOB_INDEX_PREFIX + "{" + tenant.getId() + "}";
+    }
+
+    private Map<String, String> toHash(InvalidationJob job) {
+        Map<String, String> jobHash = new HashMap<>();
+        jobHash.put(FIELD_JOB_ID, job.getJobId().toString());
+        jobHash.put(FIELD_TENANT, job.getTenant());
+        if (job.getCreatedBefore() != null) {
+            jobHash.put(FIELD_CREATED_BEFORE, job.getCreatedBefore().format(DATE_FORMATTER));
+        }
+        jobHash.put(FIELD_SESSION_ID_COUNT, String.valueOf(job.getSessionIdCount()));
+        jobHash.put(FIELD_RATE, String.valueOf(job.getRate()));
+        jobHash.put(FIELD_STARTED_AT, job.getStartedAt().format(DATE_FORMATTER));
+        jobHash.put(FIELD_SCANNED, String.valueOf(job.getScanned()));
+        jobHash.put(FIELD_DELETED, String.valueOf(job.getDeleted()));
+        jobHash.put(FIELD_STATE, job.getState().name());
+        return jobHash;
+    }
+
+    private InvalidationJob convertHashToJob(Map<Object, Object> hashEntries) {
+        String createdBefore = (String) hashEntries.get(FIELD_CREATED_BEFORE);
+        String finishedAt = (String) hashEntries.get(FIELD_FINISHED_AT);
+        return new InvalidationJob(
+            UUID.fromString((String) hashEntries.get(FIELD_JOB_ID)),
+            (String) hashEntries.get(FIELD_TENANT),
+            createdBefore != null ? LocalDateTime.parse(createdBefore, DATE_FORMATTER) : null,
+            Integer.parseInt((String) hashEntries.get(FIELD_SESSION_ID_COUNT)),
+            Integer.parseInt((String) hashEntries.get(FIELD_RATE)),
+            LocalDateTime.parse((String) hashEntries.get(FIELD_STARTED_AT), DATE_FORMATTER),
+            Long.parseLong((String) hashEntries.get(FIELD_SCANNED)),
+            Long.parseLong((String) hashEntries.get(FIELD_DELETED)),
+            InvalidationJob.State.valueOf((String) hashEntries.get(FIELD_STATE)),
+            finishedAt != null ? LocalDateTime.parse(finishedAt, DATE_FORMATTER) : null,
+            (String) hashEntries.get(FIELD_ERROR));
+    }
+}
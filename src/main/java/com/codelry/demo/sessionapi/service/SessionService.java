@@ -1,15 +1,28 @@
 package com.codelry.demo.sessionapi.service;
 
 import com.codelry.demo.sessionapi.model.Session;
+import com.codelry.demo.sessionapi.model.Tenant;
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.RedisConnectionException;
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisConnectionFailureException;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 import reactor.util.retry.Retry;
 
 import java.time.Duration;
@@ -19,18 +32,32 @@ import java.util.*;
 
 @Service
 public class SessionService {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(SessionService.class);
-    private static final String SESSION_KEY_PREFIX = "session:";
-    private static final int SESSION_EXPIRATION_HOURS = 24;
+    private static final long SESSION_COUNT_SCAN_COUNT = 1000;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
     private static final String FIELD_SESSION_ID = "sessionId";
     private static final String FIELD_CREATED_AT = "createdAt";
     private static final String FIELD_LAST_ACCESSED_AT = "lastAccessedAt";
+    private static final String FIELD_VERSION = "version";
+
+    /**
+     * Refreshes the TTL and last accessed time only while the session key still exists, so a
+     * touch racing an expiry or delete cannot recreate a partial hash. Returns 1 if touched.
+     */
+    private static final RedisScript<Long> TOUCH_SCRIPT = RedisScript.of(
+        "if redis.call('PEXPIRE', KEYS[1], ARGV[1]) == 1 then "
+            + "redis.call('HSET', KEYS[1], ARGV[2], ARGV[3]) return 1 end return 0", Long.class);
 
     private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
     private final MeterRegistry meterRegistry;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final SessionFallbackLog fallbackLog;
+    private final SessionActivityService activityService;
+    private final TenantService tenantService;
+    private final Counter replayedCounter;
+    private Disposable recoveryTask;
 
     @Value("${app.retry.max-retries:5}")
     private int maxRetries;
@@ -38,41 +65,84 @@ public class SessionService {
     @Value("${app.retry.delay:1000}")
     private long retryDelayMillis;
 
+    @Value("${app.fallback.replay-interval:1000}")
+    private long replayIntervalMillis;
+
+    @Value("${app.fallback.replay-batch-size:256}")
+    private int replayBatchSize;
+
     @Autowired
-    public SessionService(ReactiveRedisTemplate<String, String> reactiveRedisTemplate, MeterRegistry meterRegistry) {
+    public SessionService(ReactiveRedisTemplate<String, String> reactiveRedisTemplate, MeterRegistry meterRegistry,
+                          RedisCircuitBreaker circuitBreaker, SessionFallbackLog fallbackLog,
+                          SessionActivityService activityService, TenantService tenantService) {
         this.reactiveRedisTemplate = reactiveRedisTemplate;
         this.meterRegistry = meterRegistry;
+        this.circuitBreaker = circuitBreaker;
+        this.fallbackLog = fallbackLog;
+        this.activityService = activityService;
+        this.tenantService = tenantService;
+        this.replayedCounter = Counter.builder("session.fallback.replayed")
+            .description("Session records replayed from the fallback log to Redis")
+            .register(meterRegistry);
     }
 
-    public Mono<Session> createSession() {
-        logger.debug("Attempting to create session in Redis");
+    @PostConstruct
+    public void startRecovery() {
+        recoveryTask = Flux.interval(Duration.ofMillis(replayIntervalMillis))
+            .onBackpressureDrop()
+            .concatMap(tick -> recover()
+                .onErrorResume(e -> {
+                    logger.warn("Session fallback recovery attempt failed: {}", e.getMessage());
+                    return Mono.empty();
+                }))
+            .subscribe();
+    }
+
+    @PreDestroy
+    public void stopRecovery() {
+        if (recoveryTask != null) {
+            recoveryTask.dispose();
+        }
+    }
+
+    public Mono<Session> createSession(Tenant tenant) {
+        logger.debug("Attempting to create session in Redis for tenant {}", tenant.getId());
 
         Session session = new Session();
-        String key = SESSION_KEY_PREFIX + session.getSessionId().toString();
+        if (circuitBreaker.isOpen()) {
+            return createLocalSession(tenant, session);
+        }
 
-        Map<String, String> sessionHash = new HashMap<>();
-        sessionHash.put(FIELD_SESSION_ID, session.getSessionId().toString());
-        sessionHash.put(FIELD_CREATED_AT, session.getCreatedAt().format(DATE_FORMATTER));
-        sessionHash.put(FIELD_LAST_ACCESSED_AT, session.getLastAccessedAt().format(DATE_FORMATTER));
+        String key = sessionKey(tenant, session.getSessionId());
+        Map<String, String> sessionHash = toHash(session);
 
         Timer.Sample sample = Timer.start(meterRegistry);
         return reactiveRedisTemplate.opsForHash().putAll(key, sessionHash)
-            .then(reactiveRedisTemplate.expire(key, Duration.ofHours(SESSION_EXPIRATION_HOURS)))
+            .then(reactiveRedisTemplate.expire(key, tenant.getTtl()))
+            .and(recordActivity(tenant, session.getSessionId()))
             .thenReturn(session)
+            .transform(this::trackAvailability)
             .retryWhen(Retry.backoff(maxRetries, Duration.ofMillis(retryDelayMillis))
                 .jitter(0.75)
-                .filter(throwable -> !(throwable instanceof IllegalArgumentException))
+                .filter(throwable -> !(throwable instanceof IllegalArgumentException) && !circuitBreaker.isOpen())
                 .doBeforeRetry(retrySignal -> logger.warn("Retrying createSession after error: {}. Retry count: {}",
                     retrySignal.failure().getMessage(), retrySignal.totalRetries() + 1)))
-            .doFinally(signalType -> sample.stop(meterRegistry.timer("session.operation.duration",
-                "operation", "create", "status", signalType.toString())))
+            .onErrorResume(e -> fallbackLog.isEnabled() && circuitBreaker.isOpen(), e -> createLocalSession(tenant, session))
+            .doFinally(signalType -> recordOperation(sample, tenant, "create", signalType))
             .doOnSuccess(s -> logger.info("Successfully created session with ID: {}", session.getSessionId()))
             .doOnError(e -> logger.error("Error creating session in Redis", e));
     }
 
-    public Mono<Session> getSession(UUID sessionId) {
+    public Mono<Session> getSession(Tenant tenant, UUID sessionId) {
+        if (fallbackLog.contains(tenant.getId(), sessionId)) {
+            return Mono.fromCallable(() -> touchLocalSession(tenant, sessionId));
+        }
+        if (circuitBreaker.isOpen()) {
+            return Mono.error(redisUnavailable());
+        }
+
         logger.debug("Attempting to retrieve session {} from Redis", sessionId);
-        String key = SESSION_KEY_PREFIX + sessionId.toString();
+        String key = sessionKey(tenant, sessionId);
 
         Timer.Sample sample = Timer.start(meterRegistry);
         return reactiveRedisTemplate.opsForHash().entries(key)
@@ -87,34 +157,352 @@ public class SessionService {
                 LocalDateTime now = LocalDateTime.now();
                 session.setLastAccessedAt(now);
 
-                return reactiveRedisTemplate.opsForHash().put(key, FIELD_LAST_ACCESSED_AT, session.getLastAccessedAt().format(DATE_FORMATTER))
-                    .then(reactiveRedisTemplate.expire(key, Duration.ofHours(SESSION_EXPIRATION_HOURS)))
-                    .thenReturn(session)
+                return Mono.zip(touchKey(key, tenant.getTtl(), now),
+                        recordActivity(tenant, sessionId).thenReturn(true),
+                        (touched, recorded) -> touched)
+                    .filter(Boolean::booleanValue)
+                    .map(touched -> session)
                     .doOnSuccess(s -> logger.info("Successfully retrieved and updated session {}", sessionId));
             })
-            .doFinally(signalType -> sample.stop(meterRegistry.timer("session.operation.duration",
-                "operation", "get", "status", signalType.toString())))
+            .transform(this::trackAvailability)
+            .doFinally(signalType -> recordOperation(sample, tenant, "get", signalType))
             .doOnError(e -> logger.error("Failed to retrieve session {}", sessionId, e));
     }
 
-    public Mono<Boolean> sessionExists(UUID sessionId) {
+    /**
+     * Reads only the version field of a session hash so conditional requests can be
+     * answered without fetching or serializing the full session. Sessions that predate
+     * versioning report version 0, matching the entity tag a full fetch returns for them.
+     * Empty if the session does not exist.
+     */
+    public Mono<Long> getSessionVersion(Tenant tenant, UUID sessionId) {
+        if (fallbackLog.contains(tenant.getId(), sessionId)) {
+            return Mono.fromCallable(() -> localSession(tenant, sessionId)).map(Session::getVersion);
+        }
+        if (circuitBreaker.isOpen()) {
+            return Mono.error(redisUnavailable());
+        }
+
+        logger.debug("Retrieving version of session {} from Redis", sessionId);
+        String key = sessionKey(tenant, sessionId);
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return reactiveRedisTemplate.<String, String>opsForHash().multiGet(key, List.of(FIELD_SESSION_ID, FIELD_VERSION))
+            .filter(values -> values.get(0) != null)
+            .map(values -> values.get(1) != null ? Long.parseLong(values.get(1)) : 0L)
+            .transform(this::trackAvailability)
+            .doFinally(signalType -> recordOperation(sample, tenant, "version", signalType))
+            .doOnError(e -> logger.error("Failed to retrieve version of session {}", sessionId, e));
+    }
+
+    /**
+     * Updates the last accessed time and expiration of a session without reading it back.
+     * The version is left unchanged since access time is not part of the entity tag.
+     * Emits false if the session no longer exists.
+     */
+    public Mono<Boolean> touchSession(Tenant tenant, UUID sessionId) {
+        if (fallbackLog.contains(tenant.getId(), sessionId)) {
+            return Mono.fromCallable(() -> touchLocalSession(tenant, sessionId) != null);
+        }
+        if (circuitBreaker.isOpen()) {
+            return Mono.error(redisUnavailable());
+        }
+
+        logger.debug("Touching session {} in Redis", sessionId);
+        String key = sessionKey(tenant, sessionId);
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return Mono.zip(touchKey(key, tenant.getTtl(), LocalDateTime.now()),
+                recordActivity(tenant, sessionId).thenReturn(true),
+                (touched, recorded) -> touched)
+            .transform(this::trackAvailability)
+            .doFinally(signalType -> recordOperation(sample, tenant, "touch", signalType))
+            .doOnError(e -> logger.error("Failed to touch session {}", sessionId, e));
+    }
+
+    /**
+     * Removes a session with a non-blocking UNLINK. Sessions held in the fallback log get a
+     * tombstone so replay does not write them back to Redis.
+     */
+    public Mono<Boolean> deleteSession(Tenant tenant, UUID sessionId) {
+        boolean deletedLocally = fallbackLog.isEnabled() && fallbackLog.appendDelete(tenant.getId(), sessionId);
+        if (circuitBreaker.isOpen()) {
+            return deletedLocally ? Mono.just(true) : Mono.error(redisUnavailable());
+        }
+
+        logger.debug("Attempting to delete session {} from Redis", sessionId);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return unlinkSessionKey(sessionKey(tenant, sessionId))
+            .map(deleted -> deleted || deletedLocally)
+            .transform(this::trackAvailability)
+            .doFinally(signalType -> recordOperation(sample, tenant, "delete", signalType))
+            .doOnSuccess(deleted -> logger.info("Delete of session {} completed, deleted: {}", sessionId, deleted))
+            .doOnError(e -> logger.error("Failed to delete session {}", sessionId, e));
+    }
+
+    /**
+     * Lua scripts run by this service, so they can be loaded into the script cache up front.
+     */
+    public static List<RedisScript<?>> scripts() {
+        return List.of(TOUCH_SCRIPT);
+    }
+
+    public String sessionKey(Tenant tenant, UUID sessionId) {
+        return tenant.getKeyPrefix() + sessionId.toString();
+    }
+
+    /**
+     * Streams a tenant's session keys with cursor-based SCAN, never blocking Redis the way
+     * KEYS does.
+     */
+    public Flux<String> scanSessionKeys(Tenant tenant, long count) {
+        return reactiveRedisTemplate.scan(ScanOptions.scanOptions()
+            .match(tenant.getKeyPattern())
+            .count(count)
+            .build());
+    }
+
+    /**
+     * Streams the IDs of a tenant's sessions in Redis, skipping keys that do not end in a
+     * session ID.
+     */
+    public Flux<UUID> scanSessionIds(Tenant tenant, long count) {
+        int prefixLength = tenant.getKeyPrefix().length();
+        return scanSessionKeys(tenant, count)
+            .<UUID>handle((key, sink) -> {
+                try {
+                    sink.next(UUID.fromString(key.substring(prefixLength)));
+                } catch (IllegalArgumentException e) {
+                    logger.debug("Skipping non-session key {}", key);
+                }
+            });
+    }
+
+    /**
+     * IDs of a tenant's sessions held in the fallback log and not yet replayed to Redis.
+     */
+    public Flux<UUID> localSessionIds(Tenant tenant) {
+        return Flux.fromIterable(fallbackLog.sessionIds(tenant.getId()));
+    }
+
+    /**
+     * Reads a session without updating its last accessed time or expiration. Sessions held
+     * in the fallback log are served from it. Errors if the stored hash is malformed.
+     */
+    public Mono<Session> readSession(Tenant tenant, UUID sessionId) {
+        if (fallbackLog.contains(tenant.getId(), sessionId)) {
+            return Mono.fromCallable(() -> localSession(tenant, sessionId));
+        }
+        return reactiveRedisTemplate.opsForHash().entries(sessionKey(tenant, sessionId))
+            .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+            .filter(entries -> !entries.isEmpty())
+            .map(this::convertHashToSession);
+    }
+
+    public boolean isHeldLocally(Tenant tenant, UUID sessionId) {
+        return fallbackLog.contains(tenant.getId(), sessionId);
+    }
+
+    public Mono<LocalDateTime> getCreatedAt(Tenant tenant, UUID sessionId) {
+        if (fallbackLog.contains(tenant.getId(), sessionId)) {
+            return Mono.fromCallable(() -> localSession(tenant, sessionId)).map(Session::getCreatedAt);
+        }
+        if (circuitBreaker.isOpen()) {
+            return Mono.error(redisUnavailable());
+        }
+        return reactiveRedisTemplate.<String, String>opsForHash().get(sessionKey(tenant, sessionId), FIELD_CREATED_AT)
+            .map(createdAt -> LocalDateTime.parse(createdAt, DATE_FORMATTER));
+    }
+
+    private Mono<Boolean> unlinkSessionKey(String key) {
+        return reactiveRedisTemplate.unlink(key).map(count -> count > 0);
+    }
+
+    public Mono<Boolean> sessionExists(Tenant tenant, UUID sessionId) {
+        if (fallbackLog.contains(tenant.getId(), sessionId)) {
+            return Mono.fromCallable(() -> localSession(tenant, sessionId) != null);
+        }
         logger.debug("Checking if session {} exists in Redis", sessionId);
-        String key = SESSION_KEY_PREFIX + sessionId.toString();
+        String key = sessionKey(tenant, sessionId);
         return reactiveRedisTemplate.hasKey(key);
     }
 
-    public Mono<Integer> getSessionCount() {
-        logger.debug("Retrieving session count from Redis");
-        return reactiveRedisTemplate.keys(SESSION_KEY_PREFIX + "*")
-            .collectList()
-            .map(List::size)
+    public Mono<Integer> getSessionCount(Tenant tenant) {
+        logger.debug("Retrieving session count from Redis for tenant {}", tenant.getId());
+        return scanSessionKeys(tenant, SESSION_COUNT_SCAN_COUNT)
+            .count()
+            .map(Long::intValue)
             .doOnSuccess(s -> logger.debug("Retrieved session count: {}", s));
     }
 
+    private Mono<Boolean> touchKey(String key, Duration ttl, LocalDateTime lastAccessedAt) {
+        return reactiveRedisTemplate.execute(TOUCH_SCRIPT, List.of(key),
+                List.of(String.valueOf(ttl.toMillis()), FIELD_LAST_ACCESSED_AT, lastAccessedAt.format(DATE_FORMATTER)))
+            .next()
+            .map(touched -> touched == 1L);
+    }
+
+    /**
+     * Warmup traffic is left out of the operation metrics so it does not skew latencies.
+     */
+    private void recordOperation(Timer.Sample sample, Tenant tenant, String operation, SignalType signalType) {
+        if (!tenant.isWarmup()) {
+            sample.stop(meterRegistry.timer("session.operation.duration",
+                "operation", operation, "status", signalType.toString(), "tenant", tenant.getMetricTag()));
+        }
+    }
+
+    private Mono<Void> recordActivity(Tenant tenant, UUID sessionId) {
+        return tenant.isWarmup() ? Mono.empty() : activityService.recordActivity(sessionId);
+    }
+
+    /**
+     * Feeds the circuit breaker. Only connection and timeout failures count against Redis;
+     * errors such as a malformed session hash say nothing about its availability.
+     */
+    private <T> Mono<T> trackAvailability(Mono<T> operation) {
+        return operation
+            .doOnSuccess(result -> circuitBreaker.recordSuccess())
+            .doOnError(e -> {
+                if (isRedisUnavailable(e)) {
+                    circuitBreaker.recordFailure();
+                }
+            });
+    }
+
+    static boolean isRedisUnavailable(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RedisConnectionFailureException || cause instanceof QueryTimeoutException
+                || cause instanceof RedisConnectionException || cause instanceof RedisCommandTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Mono<Session> createLocalSession(Tenant tenant, Session session) {
+        if (!fallbackLog.isEnabled()) {
+            return Mono.error(redisUnavailable());
+        }
+        return Mono.fromCallable(() -> {
+            fallbackLog.appendCreate(tenant.getId(), session);
+            logger.debug("Redis unavailable, session {} written to fallback log", session.getSessionId());
+            return session;
+        });
+    }
+
+    private Session localSession(Tenant tenant, UUID sessionId) {
+        Session session = fallbackLog.get(tenant.getId(), sessionId);
+        if (session == null || isExpired(tenant, session)) {
+            return null;
+        }
+        return session;
+    }
+
+    private Session touchLocalSession(Tenant tenant, UUID sessionId) {
+        if (localSession(tenant, sessionId) == null) {
+            return null;
+        }
+        Session session = fallbackLog.touch(tenant.getId(), sessionId, LocalDateTime.now());
+        logger.debug("Session {} served from fallback log", sessionId);
+        return session;
+    }
+
+    private boolean isExpired(Tenant tenant, Session session) {
+        Duration ttl = remainingTtl(tenant, session);
+        return ttl.isNegative() || ttl.isZero();
+    }
+
+    private Duration remainingTtl(Tenant tenant, Session session) {
+        return tenant.getTtl()
+            .minus(Duration.between(session.getLastAccessedAt(), LocalDateTime.now()));
+    }
+
+    /**
+     * Probes Redis while the circuit breaker is open, then drains the fallback log once it
+     * has closed.
+     */
+    private Mono<Void> recover() {
+        if (!circuitBreaker.isOpen()) {
+            return replayBacklog();
+        }
+        if (!circuitBreaker.isProbeDue()) {
+            return Mono.empty();
+        }
+        return reactiveRedisTemplate.execute(connection -> connection.ping())
+            .next()
+            .doOnSuccess(pong -> circuitBreaker.recordSuccess())
+            .doOnError(e -> circuitBreaker.recordProbeFailure())
+            .onErrorResume(e -> Mono.empty())
+            .then(Mono.defer(this::replayBacklog));
+    }
+
+    /**
+     * Replays the fallback log to Redis in batches. Every record carries the full session
+     * state so the writes are idempotent. Only the latest record per session in a batch is
+     * written, and the commands in a batch are issued concurrently so Lettuce pipelines them.
+     */
+    private Mono<Void> replayBacklog() {
+        if (circuitBreaker.isOpen() || !fallbackLog.hasBacklog()) {
+            return Mono.empty();
+        }
+        List<SessionFallbackLog.Record> batch = fallbackLog.readBatch(replayBatchSize);
+        Map<UUID, SessionFallbackLog.Record> latest = new LinkedHashMap<>();
+        batch.forEach(record -> latest.put(record.getSession().getSessionId(), record));
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return Flux.fromIterable(latest.values())
+            .flatMap(this::replaySession, latest.size())
+            .then(Mono.fromRunnable(() -> {
+                fallbackLog.acknowledge(batch.size());
+                replayedCounter.increment(batch.size());
+                logger.info("Replayed {} sessions from fallback log, {} remaining", batch.size(), fallbackLog.backlogSize());
+            }))
+            .transform(this::trackAvailability)
+            .doFinally(signalType -> sample.stop(meterRegistry.timer("session.fallback.replay.duration",
+                "status", signalType.toString())))
+            .then(Mono.defer(this::replayBacklog));
+    }
+
+    private Mono<Boolean> replaySession(SessionFallbackLog.Record record) {
+        Session session = record.getSession();
+        Tenant tenant;
+        try {
+            tenant = tenantService.resolve(record.getTenantId());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Skipping replay of session {} for removed tenant {}", session.getSessionId(), record.getTenantId());
+            return Mono.empty();
+        }
+        String key = sessionKey(tenant, session.getSessionId());
+        if (record.isDeleted()) {
+            return reactiveRedisTemplate.unlink(key).thenReturn(true);
+        }
+        Duration ttl = remainingTtl(tenant, session);
+        if (ttl.isNegative() || ttl.isZero()) {
+            return Mono.empty();
+        }
+        return reactiveRedisTemplate.opsForHash().putAll(key, toHash(session))
+            .then(reactiveRedisTemplate.expire(key, ttl));
+    }
+
+    private RuntimeException redisUnavailable() {
+        return new RuntimeException("Redis service unavailable");
+    }
+
+    private Map<String, String> toHash(Session session) {
+        Map<String, String> sessionHash = new HashMap<>();
+        sessionHash.put(FIELD_SESSION_ID, session.getSessionId().toString());
+        sessionHash.put(FIELD_CREATED_AT, session.getCreatedAt().format(DATE_FORMATTER));
+        sessionHash.put(FIELD_LAST_ACCESSED_AT, session.getLastAccessedAt().format(DATE_FORMATTER));
+        sessionHash.put(FIELD_VERSION, String.valueOf(session.getVersion()));
+        return sessionHash;
+    }
+
     private Session convertHashToSession(Map<Object, Object> hashEntries) {
         String sessionIdStr = (String) hashEntries.get(FIELD_SESSION_ID);
         String createdAtStr = (String) hashEntries.get(FIELD_CREATED_AT);
         String lastAccessedAtStr = (String) hashEntries.get(FIELD_LAST_ACCESSED_AT);
+        String versionStr = (String) hashEntries.get(FIELD_VERSION);
 
         UUID sessionId = UUID.fromString(sessionIdStr);
         LocalDateTime createdAt = LocalDateTime.parse(createdAtStr, DATE_FORMATTER);
@@ -123,6 +511,7 @@ public class SessionService {
         Session session = new Session(sessionId);
         session.setCreatedAt(createdAt);
         session.setLastAccessedAt(lastAccessedAt);
+        session.setVersion(versionStr != null ? Long.parseLong(versionStr) : 0L);
 
         return session;
     }
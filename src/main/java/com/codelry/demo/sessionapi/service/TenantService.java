@@ -0,0 +1,127 @@
+package com.codelry.demo.sessionapi.service;
+
+import com.codelry.demo.sessionapi.config.TenantProperties;
+import com.codelry.demo.sessionapi.model.Tenant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves tenant IDs to their key namespace, TTL and quota. The default tenant keeps the
+ * original {@code session:} prefix so existing sessions stay readable. Other tenants get a
+ * hash-tagged prefix, {@code session:{tenant}:}, so a tenant's keys share a cluster slot.
+ * <p>
+ * When unknown tenants are allowed, at most {@code max-dynamic-tenants} of them are created
+ * and they share the {@code other} tenant tag on metrics.
+ * <p>
+ * A reserved warmup tenant with its own namespace, a short TTL and no quota carries the
+ * startup warmup traffic. It cannot be resolved by ID, only by presenting the warmup token
+ * generated for this process.
+ */
+@Service
+public class TenantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantService.class);
+    private static final Pattern TENANT_ID = Pattern.compile("[A-Za-z0-9_-]{1,32}");
+    private static final String SESSION_KEY_PREFIX = "session:";
+    private static final String WARMUP_TENANT = "_warmup";
+    private static final Duration WARMUP_TTL = Duration.ofMinutes(1);
+    private static final String DYNAMIC_METRIC_TAG = "other";
+
+    private final TenantProperties properties;
+    private final Map<String, Tenant> tenants = new ConcurrentHashMap<>();
+    private final String warmupToken = UUID.randomUUID().toString();
+    private final Tenant warmupTenant = new Tenant(WARMUP_TENANT, SESSION_KEY_PREFIX + "{" + WARMUP_TENANT + "}:",
+        SESSION_KEY_PREFIX + "{" + WARMUP_TENANT + "}:*", WARMUP_TTL, 0, 0, WARMUP_TENANT, true);
+    private int dynamicTenants;
+
+    @Autowired
+    public TenantService(TenantProperties properties) {
+        this.properties = properties;
+    }
+
+    public Tenant defaultTenant() {
+        return resolve(null);
+    }
+
+    public String warmupToken() {
+        return warmupToken;
+    }
+
+    /**
+     * Returns the warmup tenant if the token matches this process's warmup token, otherwise null.
+     */
+    public Tenant warmupTenant(String token) {
+        return warmupToken.equals(token) ? warmupTenant : null;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the tenant ID is malformed or reserved, or unknown
+     *                                  while unknown tenants are not allowed or the dynamic
+     *                                  tenant limit has been reached
+     */
+    public Tenant resolve(String tenantId) {
+        String id = StringUtils.hasText(tenantId) ? tenantId : properties.getDefaultTenant();
+        Tenant tenant = tenants.get(id);
+        if (tenant != null) {
+            return tenant;
+        }
+        if (!TENANT_ID.matcher(id).matches() || id.equals(WARMUP_TENANT)) {
+            throw new IllegalArgumentException("Invalid tenant: " + id);
+        }
+        if (isConfigured(id)) {
+            return tenants.computeIfAbsent(id, this::createTenant);
+        }
+        if (!properties.isAllowUnknown()) {
+            throw new IllegalArgumentException("Unknown tenant: " + id);
+        }
+        return createDynamicTenant(id);
+    }
+
+    private synchronized Tenant createDynamicTenant(String id) {
+        Tenant tenant = tenants.get(id);
+        if (tenant != null) {
+            return tenant;
+        }
+        if (dynamicTenants >= properties.getMaxDynamicTenants()) {
+            throw new IllegalArgumentException("Dynamic tenant limit reached, rejecting tenant: " + id);
+        }
+        tenant = createTenant(id);
+        tenants.put(id, tenant);
+        dynamicTenants++;
+        return tenant;
+    }
+
+    private boolean isDefault(String id) {
+        return id.equals(properties.getDefaultTenant());
+    }
+
+    private boolean isConfigured(String id) {
+        return isDefault(id) || properties.getTenants().containsKey(id);
+    }
+
+    private Tenant createTenant(String id) {
+        TenantProperties.Settings defaults = properties.getDefaults();
+        TenantProperties.Settings settings = properties.getTenants().getOrDefault(id, defaults);
+
+        Duration ttl = settings.getTtl() != null ? settings.getTtl() : defaults.getTtl();
+        long rateLimit = settings.getRateLimit() != null ? settings.getRateLimit() : defaults.getRateLimit();
+        long burst = settings.getBurst() != null ? settings.getBurst() : defaults.getBurst();
+
+        String keyPrefix = isDefault(id) ? SESSION_KEY_PREFIX : SESSION_KEY_PREFIX + "{" + id + "}:";
+        String keyPattern = isDefault(id) ? SESSION_KEY_PREFIX + "[^{]*" : keyPrefix + "*";
+
+        logger.info("Tenant {} using key prefix {}, ttl {}, rate limit {}/s", id, keyPrefix, ttl,
+            rateLimit > 0 ? rateLimit : "unlimited");
+        String metricTag = isConfigured(id) ? id : DYNAMIC_METRIC_TAG;
+        return new Tenant(id, keyPrefix, keyPattern, ttl, rateLimit, burst, metricTag, false);
+    }
+}
@@ -1,7 +1,12 @@
 package com.codelry.demo.sessionapi;
 
+import com.codelry.demo.sessionapi.config.TenantProperties;
+import com.codelry.demo.sessionapi.config.TenantWebFilter;
+import com.codelry.demo.sessionapi.controller.SessionController;
 import com.codelry.demo.sessionapi.model.Session;
+import com.codelry.demo.sessionapi.model.Tenant;
 import com.codelry.demo.sessionapi.service.SessionService;
+import com.codelry.demo.sessionapi.service.TenantService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
@@ -14,11 +19,17 @@ import org.springframework.boot.test.util.TestPropertyValues;
 import org.springframework.context.ApplicationContextInitializer;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.utility.DockerImageName;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @SpringBootTest
@@ -51,13 +62,22 @@ class SessionControllerTest {
     @Autowired
     private SessionService sessionService;
 
+    @Autowired
+    private TenantService tenantService;
+
+    @Autowired
+    private SessionController sessionController;
+
     @Autowired
     private RedisTemplate<String, String> redisTemplate;
 
+    private Tenant tenant;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @BeforeEach
     void setUp() {
+        tenant = tenantService.defaultTenant();
         cleanupTestData();
     }
 
@@ -72,7 +92,7 @@ class SessionControllerTest {
 
     @Test
     void getSession_WithValidUUID_ShouldReturnSession() {
-        Session createdSession = sessionService.createSession().block();
+        Session createdSession = sessionService.createSession(tenant).block();
         assert createdSession != null;
         UUID sessionId = createdSession.getSessionId();
 
@@ -148,7 +168,7 @@ class SessionControllerTest {
 
     @Test
     void getSession_ShouldUpdateLastAccessedTime() throws Exception {
-        Session createdSession = sessionService.createSession().block();
+        Session createdSession = sessionService.createSession(tenant).block();
         assert createdSession != null;
         UUID sessionId = createdSession.getSessionId();
 
@@ -168,6 +188,393 @@ class SessionControllerTest {
         assert !lastAccessedAt.equals(createdAt);
     }
 
+    @Test
+    void getSession_ShouldReturnETag() {
+        Session createdSession = sessionService.createSession(tenant).block();
+        assert createdSession != null;
+
+        webTestClient.get().uri("/v1/api/session/" + createdSession.getSessionId())
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals("ETag", "W/\"1\"");
+    }
+
+    @Test
+    void getSession_WithMatchingIfNoneMatch_ShouldReturnNotModified() {
+        Session createdSession = sessionService.createSession(tenant).block();
+        assert createdSession != null;
+
+        String eTag = webTestClient.get().uri("/v1/api/session/" + createdSession.getSessionId())
+            .exchange()
+            .expectStatus().isOk()
+            .returnResult(Session.class)
+            .getResponseHeaders()
+            .getETag();
+
+        webTestClient.get().uri("/v1/api/session/" + createdSession.getSessionId())
+            .header("If-None-Match", eTag)
+            .exchange()
+            .expectStatus().isNotModified()
+            .expectHeader().valueEquals("ETag", eTag)
+            .expectBody().isEmpty();
+    }
+
+    @Test
+    void getSession_WithMatchingIfNoneMatch_ShouldTouchSession() {
+        Session createdSession = sessionService.createSession(tenant).block();
+        assert createdSession != null;
+        String key = "session:" + createdSession.getSessionId();
+        String staleAccess = LocalDateTime.now().minusHours(1).toString();
+        redisTemplate.opsForHash().put(key, "lastAccessedAt", staleAccess);
+        redisTemplate.expire(key, Duration.ofMinutes(1));
+
+        webTestClient.get().uri("/v1/api/session/" + createdSession.getSessionId())
+            .header("If-None-Match", "W/\"1\"")
+            .exchange()
+            .expectStatus().isNotModified();
+
+        Assertions.assertNotEquals(staleAccess, redisTemplate.opsForHash().get(key, "lastAccessedAt"));
+        Long ttl = redisTemplate.getExpire(key);
+        Assertions.assertNotNull(ttl);
+        Assertions.assertTrue(ttl > 60);
+    }
+
+    @Test
+    void getSession_WithUnversionedSession_ShouldMatchItsETag() {
+        Session createdSession = sessionService.createSession(tenant).block();
+        assert createdSession != null;
+        String key = "session:" + createdSession.getSessionId();
+        redisTemplate.opsForHash().delete(key, "version");
+
+        String eTag = webTestClient.get().uri("/v1/api/session/" + createdSession.getSessionId())
+            .exchange()
+            .expectStatus().isOk()
+            .returnResult(Session.class)
+            .getResponseHeaders()
+            .getETag();
+        Assertions.assertEquals("W/\"0\"", eTag);
+
+        webTestClient.get().uri("/v1/api/session/" + createdSession.getSessionId())
+            .header("If-None-Match", eTag)
+            .exchange()
+            .expectStatus().isNotModified()
+            .expectHeader().valueEquals("ETag", "W/\"0\"");
+        Assertions.assertEquals(0L, sessionService.getSessionVersion(tenant, createdSession.getSessionId()).block());
+    }
+
+    @Test
+    void getSession_WithMatchingIfNoneMatchAndTouchDisabled_ShouldLeaveSessionUntouched() {
+        Session createdSession = sessionService.createSession(tenant).block();
+        assert createdSession != null;
+        String key = "session:" + createdSession.getSessionId();
+        String staleAccess = LocalDateTime.now().minusHours(1).toString();
+        redisTemplate.opsForHash().put(key, "lastAccessedAt", staleAccess);
+        redisTemplate.expire(key, Duration.ofMinutes(1));
+
+        ReflectionTestUtils.setField(sessionController, "touchOnNotModified", false);
+        try {
+            webTestClient.get().uri("/v1/api/session/" + createdSession.getSessionId())
+                .header("If-None-Match", "W/\"1\"")
+                .exchange()
+                .expectStatus().isNotModified();
+        } finally {
+            ReflectionTestUtils.setField(sessionController, "touchOnNotModified", true);
+        }
+
+        Assertions.assertEquals(staleAccess, redisTemplate.opsForHash().get(key, "lastAccessedAt"));
+        Long ttl = redisTemplate.getExpire(key);
+        Assertions.assertNotNull(ttl);
+        Assertions.assertTrue(ttl <= 60);
+    }
+
+    @Test
+    void getSession_WithStaleIfNoneMatch_ShouldReturnSession() {
+        Session createdSession = sessionService.createSession(tenant).block();
+        assert createdSession != null;
+
+        webTestClient.get().uri("/v1/api/session/" + createdSession.getSessionId())
+            .header("If-None-Match", "W/\"0\"")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.sessionId").isEqualTo(createdSession.getSessionId().toString());
+    }
+
+    @Test
+    void getSession_WithIfNoneMatchForNonExistentSession_ShouldReturnNotFound() {
+        webTestClient.get().uri("/v1/api/session/" + UUID.randomUUID())
+            .header("If-None-Match", "W/\"1\"")
+            .exchange()
+            .expectStatus().isNotFound();
+    }
+
+    @Test
+    void deleteSession_ShouldRemoveSession() {
+        Session createdSession = sessionService.createSession(tenant).block();
+        assert createdSession != null;
+
+        webTestClient.delete().uri("/v1/api/session/" + createdSession.getSessionId())
+            .exchange()
+            .expectStatus().isNoContent();
+
+        webTestClient.get().uri("/v1/api/session/" + createdSession.getSessionId())
+            .exchange()
+            .expectStatus().isNotFound();
+    }
+
+    @Test
+    void deleteSession_WithNonExistentSession_ShouldReturnNotFound() {
+        webTestClient.delete().uri("/v1/api/session/" + UUID.randomUUID())
+            .exchange()
+            .expectStatus().isNotFound();
+    }
+
+    @Test
+    void invalidation_CreatedBefore_ShouldRemoveOlderSessions() throws Exception {
+        Session first = sessionService.createSession(tenant).block();
+        Session second = sessionService.createSession(tenant).block();
+        assert first != null && second != null;
+
+        byte[] response = webTestClient.post().uri("/v1/api/session/invalidations")
+            .bodyValue(Map.of("createdBefore", LocalDateTime.now().plusMinutes(1).toString()))
+            .exchange()
+            .expectStatus().isAccepted()
+            .expectBody().jsonPath("$.jobId").exists()
+            .returnResult()
+            .getResponseBodyContent();
+
+        String jobId = objectMapper.readTree(response).get("jobId").asText();
+        String state = "RUNNING";
+        for (int attempt = 0; attempt < 50 && state.equals("RUNNING"); attempt++) {
+            Thread.sleep(100);
+            byte[] status = webTestClient.get().uri("/v1/api/session/invalidations/" + jobId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .returnResult()
+                .getResponseBodyContent();
+            state = objectMapper.readTree(status).get("state").asText();
+        }
+
+        Assertions.assertEquals("COMPLETED", state);
+        Assertions.assertEquals(Boolean.FALSE, sessionService.sessionExists(tenant, first.getSessionId()).block());
+        Assertions.assertEquals(Boolean.FALSE, sessionService.sessionExists(tenant, second.getSessionId()).block());
+    }
+
+    @Test
+    void invalidation_Cancel_ShouldStopJob() throws Exception {
+        Session session = sessionService.createSession(tenant).block();
+        assert session != null;
+
+        byte[] response = webTestClient.post().uri("/v1/api/session/invalidations")
+            .bodyValue(Map.of("createdBefore", LocalDateTime.now().plusMinutes(1).toString(), "rate", 1))
+            .exchange()
+            .expectStatus().isAccepted()
+            .expectBody()
+            .returnResult()
+            .getResponseBodyContent();
+        String jobId = objectMapper.readTree(response).get("jobId").asText();
+        Assertions.assertEquals(Boolean.TRUE, redisTemplate.hasKey("session-invalidation:{default}:" + jobId));
+
+        webTestClient.delete().uri("/v1/api/session/invalidations/" + jobId)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody().jsonPath("$.state").isEqualTo("CANCELLED");
+
+        webTestClient.get().uri("/v1/api/session/invalidations")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody().jsonPath("$[0].jobId").isEqualTo(jobId);
+
+        Thread.sleep(1500);
+        Assertions.assertEquals(Boolean.TRUE, sessionService.sessionExists(tenant, session.getSessionId()).block());
+    }
+
+    @Test
+    void invalidation_WithoutCriteria_ShouldReturnBadRequest() {
+        webTestClient.post().uri("/v1/api/session/invalidations")
+            .bodyValue(Map.of())
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void exportSessions_ShouldStreamAllSessionsAsNdjson() {
+        Session first = sessionService.createSession(tenant).block();
+        Session second = sessionService.createSession(tenant).block();
+        assert first != null && second != null;
+
+        List<Session> exported = webTestClient.get().uri("/v1/api/session/export?parallelism=2")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(Session.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        assert exported != null;
+        Assertions.assertEquals(2, exported.size());
+        Assertions.assertTrue(exported.stream().anyMatch(s -> s.getSessionId().equals(first.getSessionId())));
+        Assertions.assertTrue(exported.stream().anyMatch(s -> s.getSessionId().equals(second.getSessionId())));
+    }
+
+    @Test
+    void exportSessions_ShouldSkipMalformedEntries() {
+        Session valid = sessionService.createSession(tenant).block();
+        assert valid != null;
+        redisTemplate.opsForHash().put("session:" + UUID.randomUUID(), "createdAt", LocalDateTime.now().toString());
+        String badDate = "session:" + UUID.randomUUID();
+        redisTemplate.opsForHash().put(badDate, "sessionId", badDate.substring("session:".length()));
+        redisTemplate.opsForHash().put(badDate, "createdAt", "not-a-date");
+        redisTemplate.opsForValue().set("session:" + UUID.randomUUID(), "not-a-hash");
+        redisTemplate.opsForValue().set("session:not-a-uuid", "not-a-session");
+
+        List<Session> exported = webTestClient.get().uri("/v1/api/session/export")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isOk()
+            .returnResult(Session.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        assert exported != null;
+        Assertions.assertEquals(1, exported.size());
+        Assertions.assertEquals(valid.getSessionId(), exported.get(0).getSessionId());
+    }
+
+    @Test
+    void activity_ShouldCountDistinctSessions() throws Exception {
+        Session first = sessionService.createSession(tenant).block();
+        Session second = sessionService.createSession(tenant).block();
+        assert first != null && second != null;
+        sessionService.getSession(tenant, first.getSessionId()).block();
+
+        Map<?, ?> counts = Map.of();
+        for (int attempt = 0; attempt < 50 && !counts.equals(Map.of("5m", 2, "1h", 2, "24h", 2)); attempt++) {
+            Thread.sleep(100);
+            byte[] response = webTestClient.get().uri("/v1/api/session/activity")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .returnResult()
+                .getResponseBodyContent();
+            counts = objectMapper.readValue(response, Map.class);
+        }
+        Assertions.assertEquals(Map.of("5m", 2, "1h", 2, "24h", 2), counts);
+
+        webTestClient.get().uri("/v1/api/session/activity?minutes=90")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$['90m']").isEqualTo(2);
+
+        String hourKey = "{session-activity}:h:" + System.currentTimeMillis() / 3_600_000;
+        Assertions.assertEquals(Boolean.TRUE, redisTemplate.hasKey(hourKey));
+        Long ttl = redisTemplate.getExpire(hourKey);
+        Assertions.assertTrue(ttl != null && ttl > 0);
+    }
+
+    @Test
+    void activity_WindowOverAnHour_ShouldRoundUpToWholeHours() {
+        long currentHour = System.currentTimeMillis() / 3_600_000;
+        redisTemplate.opsForHyperLogLog().add("{session-activity}:h:" + (currentHour - 2), UUID.randomUUID().toString());
+        redisTemplate.opsForHyperLogLog().add("{session-activity}:h:" + (currentHour - 3), UUID.randomUUID().toString());
+
+        webTestClient.get().uri("/v1/api/session/activity?minutes=90")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$['90m']").isEqualTo(1);
+    }
+
+    @Test
+    void tenantSessions_ShouldBeIsolatedFromOtherTenants() throws Exception {
+        byte[] response = webTestClient.post().uri("/v1/api/tenants/acme/session")
+            .exchange()
+            .expectStatus().isCreated()
+            .expectBody()
+            .returnResult()
+            .getResponseBodyContent();
+        String sessionId = objectMapper.readTree(response).get("sessionId").asText();
+
+        webTestClient.get().uri("/v1/api/session/" + sessionId)
+            .header("X-Tenant-ID", "acme")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody().jsonPath("$.sessionId").isEqualTo(sessionId);
+
+        webTestClient.get().uri("/v1/api/session/" + sessionId)
+            .exchange()
+            .expectStatus().isNotFound();
+
+        Long ttl = redisTemplate.getExpire("session:{acme}:" + sessionId);
+        Assertions.assertNotNull(ttl);
+        Assertions.assertTrue(ttl > 0 && ttl <= 3600);
+    }
+
+    @Test
+    void tenant_Unknown_ShouldReturnBadRequest() {
+        webTestClient.post().uri("/v1/api/session")
+            .header("X-Tenant-ID", "unknown")
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody()
+            .jsonPath("$.error").isEqualTo("Bad Request")
+            .jsonPath("$.message").isEqualTo("Unknown tenant: unknown");
+    }
+
+    @Test
+    void tenant_OverQuota_ShouldReturnTooManyRequests() {
+        webTestClient.post().uri("/v1/api/tenants/limited/session")
+            .exchange()
+            .expectStatus().isCreated();
+
+        webTestClient.post().uri("/v1/api/tenants/limited/session")
+            .exchange()
+            .expectStatus().isEqualTo(429)
+            .expectBody()
+            .jsonPath("$.error").isEqualTo("Too Many Requests")
+            .jsonPath("$.message").isEqualTo("Rate limit exceeded for tenant: limited");
+    }
+
+    @Test
+    void tenant_DynamicTenantsOverLimit_ShouldBeRejected() {
+        TenantProperties properties = new TenantProperties();
+        properties.setAllowUnknown(true);
+        properties.setMaxDynamicTenants(1);
+        TenantService dynamicTenantService = new TenantService(properties);
+
+        Assertions.assertEquals("default", dynamicTenantService.defaultTenant().getMetricTag());
+        Tenant first = dynamicTenantService.resolve("first");
+        Assertions.assertEquals("other", first.getMetricTag());
+        Assertions.assertSame(first, dynamicTenantService.resolve("first"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> dynamicTenantService.resolve("second"));
+    }
+
+    @Test
+    void warmupRequests_ShouldUseWarmupTenantWithoutRecordingActivity() throws Exception {
+        byte[] response = webTestClient.post().uri("/v1/api/session")
+            .header(TenantWebFilter.WARMUP_TOKEN_HEADER, tenantService.warmupToken())
+            .exchange()
+            .expectStatus().isCreated()
+            .expectBody()
+            .returnResult()
+            .getResponseBodyContent();
+        String sessionId = objectMapper.readTree(response).get("sessionId").asText();
+
+        Assertions.assertEquals(Boolean.TRUE, redisTemplate.hasKey("session:{_warmup}:" + sessionId));
+        Assertions.assertEquals(Boolean.FALSE, redisTemplate.hasKey("session:" + sessionId));
+        Assertions.assertEquals(Boolean.FALSE, redisTemplate.hasKey("{session-activity}:" + System.currentTimeMillis() / 60_000));
+
+        webTestClient.post().uri("/v1/api/session")
+            .header("X-Tenant-ID", "_warmup")
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
     private void cleanupTestData() {
         try {
             Assertions.assertNotNull(redisTemplate.getConnectionFactory());
@@ -0,0 +1,188 @@
+package com.codelry.demo.sessionapi;
+
+import com.codelry.demo.sessionapi.model.InvalidationJob;
+import com.codelry.demo.sessionapi.model.Session;
+import com.codelry.demo.sessionapi.model.Tenant;
+import com.codelry.demo.sessionapi.service.RedisCircuitBreaker;
+import com.codelry.demo.sessionapi.service.SessionFallbackLog;
+import com.codelry.demo.sessionapi.service.SessionInvalidationService;
+import com.codelry.demo.sessionapi.service.SessionService;
+import com.codelry.demo.sessionapi.service.TenantService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ContextConfiguration(initializers = SessionFallbackTest.Initializer.class)
+class SessionFallbackTest {
+
+    static final String FALLBACK_PATH = "build/session-fallback-outage-test.log";
+
+    static final GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:latest"));
+
+    static class Initializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+      @Override
+      public void initialize(ConfigurableApplicationContext applicationContext) {
+        redis.withExposedPorts(6379);
+        redis.start();
+        new File(FALLBACK_PATH).delete();
+        TestPropertyValues.of(
+            "spring.data.redis.host=" + redis.getHost(),
+            "spring.data.redis.port=" + redis.getMappedPort(6379),
+            "spring.data.redis.timeout=500ms",
+            "app.circuit-breaker.failure-threshold=2",
+            "app.circuit-breaker.open-duration=1000",
+            "app.fallback.path=" + FALLBACK_PATH,
+            "app.fallback.replay-interval=200"
+        ).applyTo(applicationContext.getEnvironment());
+      }
+    }
+
+    @AfterAll
+    static void afterAll() {
+      redis.stop();
+    }
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private TenantService tenantService;
+
+    @Autowired
+    private SessionInvalidationService invalidationService;
+
+    @Autowired
+    private RedisCircuitBreaker circuitBreaker;
+
+    @Autowired
+    private SessionFallbackLog fallbackLog;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Test
+    void redisOutage_ShouldServeFromFallbackLogAndReplayOnRecovery() throws Exception {
+        Tenant tenant = tenantService.defaultTenant();
+        Gauge backlog = meterRegistry.get("session.fallback.backlog").gauge();
+
+        Session local;
+        redis.getDockerClient().pauseContainerCmd(redis.getContainerId()).exec();
+        try {
+            Session first = sessionService.createSession(tenant).block(Duration.ofSeconds(10));
+            assertNotNull(first);
+            assertTrue(circuitBreaker.isOpen());
+
+            long start = System.nanoTime();
+            local = sessionService.createSession(tenant).block(Duration.ofSeconds(1));
+            assertNotNull(local);
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 500);
+
+            Session served = sessionService.getSession(tenant, local.getSessionId()).block(Duration.ofSeconds(1));
+            assertNotNull(served);
+            assertEquals(local.getSessionId(), served.getSessionId());
+            assertTrue(backlog.value() > 0);
+        } finally {
+            redis.getDockerClient().unpauseContainerCmd(redis.getContainerId()).exec();
+        }
+
+        for (int attempt = 0; attempt < 100 && backlog.value() > 0; attempt++) {
+            Thread.sleep(100);
+        }
+        assertEquals(0.0, backlog.value());
+        assertFalse(circuitBreaker.isOpen());
+
+        String key = "session:" + local.getSessionId();
+        assertEquals(Boolean.TRUE, redisTemplate.hasKey(key));
+        Long ttl = redisTemplate.getExpire(key);
+        assertNotNull(ttl);
+        assertTrue(ttl > tenant.getTtl().toSeconds() - 60 && ttl <= tenant.getTtl().toSeconds());
+    }
+
+    @Test
+    void invalidation_ShouldTombstoneSessionsHeldInFallbackLog() throws Exception {
+        Tenant tenant = tenantService.resolve("acme");
+        Gauge backlog = meterRegistry.get("session.fallback.backlog").gauge();
+
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+        assertTrue(circuitBreaker.isOpen());
+        Session local = sessionService.createSession(tenant).block();
+        assertNotNull(local);
+
+        InvalidationJob job = invalidationService.startJob(tenant, List.of(), LocalDateTime.now().plusMinutes(1), 100_000).block();
+        assertNotNull(job);
+        for (int attempt = 0; attempt < 50 && job.getState() == InvalidationJob.State.RUNNING; attempt++) {
+            Thread.sleep(100);
+            job = invalidationService.getJob(tenant, job.getJobId()).block();
+            assertNotNull(job);
+        }
+        assertEquals(InvalidationJob.State.COMPLETED, job.getState());
+        assertEquals(1, job.getDeleted());
+        assertEquals(Boolean.FALSE, sessionService.sessionExists(tenant, local.getSessionId()).block());
+
+        for (int attempt = 0; attempt < 100 && (circuitBreaker.isOpen() || backlog.value() > 0); attempt++) {
+            Thread.sleep(100);
+        }
+        assertEquals(0.0, backlog.value());
+        assertEquals(Boolean.FALSE, redisTemplate.hasKey("session:{acme}:" + local.getSessionId()));
+        assertNull(sessionService.getSession(tenant, local.getSessionId()).block());
+    }
+
+    @Test
+    void repeatedTouches_ShouldNotGrowFallbackLog() throws Exception {
+        Tenant tenant = tenantService.defaultTenant();
+
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+        assertTrue(circuitBreaker.isOpen());
+        Session local = sessionService.createSession(tenant).block();
+        assertNotNull(local);
+
+        int startBacklog = fallbackLog.backlogSize();
+        for (int attempt = 0; attempt < 1000; attempt++) {
+            assertNotNull(sessionService.getSession(tenant, local.getSessionId()).block());
+            assertTrue(sessionService.touchSession(tenant, local.getSessionId()).block());
+        }
+        assertTrue(fallbackLog.backlogSize() <= startBacklog + 1);
+
+        for (int attempt = 0; attempt < 100 && (circuitBreaker.isOpen() || fallbackLog.hasBacklog()); attempt++) {
+            Thread.sleep(100);
+        }
+        assertFalse(fallbackLog.hasBacklog());
+        assertEquals(Boolean.TRUE, redisTemplate.hasKey("session:" + local.getSessionId()));
+    }
+
+    @Test
+    void malformedSession_ShouldNotOpenCircuitBreaker() {
+        Tenant tenant = tenantService.defaultTenant();
+        UUID sessionId = UUID.randomUUID();
+        redisTemplate.opsForHash().put("session:" + sessionId, "lastAccessedAt", "not-a-date");
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            assertThrows(RuntimeException.class, () -> sessionService.getSession(tenant, sessionId).block());
+        }
+        assertFalse(circuitBreaker.isOpen());
+    }
+}
@@ -1,7 +1,9 @@
 package com.codelry.demo.sessionapi;
 
 import com.codelry.demo.sessionapi.model.Session;
+import com.codelry.demo.sessionapi.model.Tenant;
 import com.codelry.demo.sessionapi.service.SessionService;
+import com.codelry.demo.sessionapi.service.TenantService;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,6 +16,7 @@ import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.utility.DockerImageName;
 
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -43,20 +46,33 @@ class SessionServiceRedisTest {
     @Autowired
     private SessionService sessionService;
 
+    @Autowired
+    private TenantService tenantService;
+
     @Test
     void sessionLifecycleTest() {
-        Session session = sessionService.createSession().block();
+        Tenant tenant = tenantService.defaultTenant();
+        Session session = sessionService.createSession(tenant).block();
         assert session != null;
         assertNotNull(session.getSessionId());
 
-        Session retrieved = sessionService.getSession(session.getSessionId()).block();
+        Session retrieved = sessionService.getSession(tenant, session.getSessionId()).block();
         assert retrieved != null;
         assertEquals(session.getSessionId(), retrieved.getSessionId());
 
-        assertEquals(Boolean.TRUE, sessionService.sessionExists(session.getSessionId()).block());
+        assertEquals(Boolean.TRUE, sessionService.sessionExists(tenant, session.getSessionId()).block());
 
-        Optional<Integer> count = sessionService.getSessionCount().blockOptional();
+        Optional<Integer> count = sessionService.getSessionCount(tenant).blockOptional();
         assert count.isPresent();
         assertTrue(count.get() >= 1);
     }
+
+    @Test
+    void touchSession_ForMissingSession_ShouldNotRecreateIt() {
+        Tenant tenant = tenantService.defaultTenant();
+        UUID sessionId = UUID.randomUUID();
+
+        assertEquals(Boolean.FALSE, sessionService.touchSession(tenant, sessionId).block());
+        assertEquals(Boolean.FALSE, sessionService.sessionExists(tenant, sessionId).block());
+    }
 }